@@ -1,26 +1,19 @@
 package io.github.arielcarrera.build.features;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.math.BigDecimal;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.URL;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Enumeration;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import org.barfuin.gradle.jacocolog.JacocoLogPlugin;
@@ -29,31 +22,52 @@ import org.gradle.api.JavaVersion;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.dsl.RepositoryHandler;
-import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
-import org.gradle.api.artifacts.repositories.MavenRepositoryContentDescriptor;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.plugins.JavaLibraryPlugin;
 import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.plugins.JavaPluginExtension;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.publish.PublishingExtension;
+import org.gradle.api.publish.VariantVersionMappingStrategy;
 import org.gradle.api.publish.maven.MavenPublication;
 import org.gradle.api.publish.maven.plugins.MavenPublishPlugin;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.testing.Test;
-import org.gradle.internal.impldep.org.junit.platform.launcher.Launcher;
 import org.gradle.jvm.toolchain.JavaLanguageVersion;
 import org.gradle.testing.jacoco.plugins.JacocoPlugin;
+import org.gradle.testing.jacoco.plugins.JacocoPluginExtension;
+import org.gradle.testing.jacoco.plugins.JacocoTaskExtension;
 import org.gradle.testing.jacoco.tasks.JacocoCoverageVerification;
 import org.gradle.testing.jacoco.tasks.JacocoReport;
+import io.github.arielcarrera.build.features.coverage.CoverageAggregationPlugin;
+import io.github.arielcarrera.build.features.dependencies.DependencyMetadata;
+import io.github.arielcarrera.build.features.dependencies.Feature;
+import io.github.arielcarrera.build.features.dependencies.FeatureCacheService;
+import io.github.arielcarrera.build.features.dependencies.FeatureCatalog;
 import io.github.arielcarrera.build.features.dependencies.FeatureManager;
 import io.github.arielcarrera.build.features.dependencies.FeatureRegistry;
+import io.github.arielcarrera.build.features.dependencies.VersionCatalogGenerator;
 import io.github.arielcarrera.build.features.dsl.BuildFeaturesExtension;
+import io.github.arielcarrera.build.features.dsl.SettingsHandler;
+import io.github.arielcarrera.build.features.dsl.TestingHandler;
 import io.github.arielcarrera.build.features.tasks.AppVersionTask;
 import io.github.arielcarrera.build.features.tasks.BuildFeaturesTask;
 import io.github.arielcarrera.build.features.tasks.ExportFeatureTask;
+import io.github.arielcarrera.build.features.tasks.GenerateVersionCatalogTask;
+import io.github.arielcarrera.build.features.tasks.InstrumentClassesTask;
 import io.github.arielcarrera.build.features.tasks.ListDependenciesTask;
+import io.github.arielcarrera.build.features.tasks.LockFeaturesTask;
+import io.github.arielcarrera.build.features.tasks.MigrateFeaturesTask;
 import io.github.arielcarrera.build.features.tasks.PublishFeaturesTask;
 import io.github.arielcarrera.build.features.tasks.PublishFeaturesToMavenLocalTask;
+import io.github.arielcarrera.build.features.tasks.TestImpactTask;
+import io.github.arielcarrera.build.features.testing.TestShard;
 import io.spring.gradle.dependencymanagement.DependencyManagementPlugin;
 import io.spring.gradle.dependencymanagement.dsl.DependencyManagementExtension;
 import io.spring.gradle.dependencymanagement.dsl.ImportsHandler;
@@ -67,6 +81,19 @@ import io.spring.gradle.dependencymanagement.org.apache.commons.lang3.StringUtil
  */
 abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension> implements Plugin<Project> {
 
+    public static final String DEPENDENCY_MANAGEMENT_MODE_PROPERTY = "buildFeatures.dependencyManagementMode";
+    public static final String DEPENDENCY_MANAGEMENT_MODE_PLUGIN = "plugin";
+    public static final String DEPENDENCY_MANAGEMENT_MODE_PLATFORM = "platform";
+    public static final String DEPENDENCY_MANAGEMENT_MODE_ENFORCED_PLATFORM = "enforcedPlatform";
+    public static final String FEATURE_PLATFORMS_CONFIGURATION_NAME = "featurePlatforms";
+    public static final String MAVEN_LOCAL_MODE_ALL = "all";
+    public static final String MAVEN_LOCAL_MODE_SNAPSHOTS = "snapshots";
+    public static final String MAVEN_LOCAL_MODE_DISABLED = "disabled";
+    public static final String TEST_COVERAGE_MODE_ALWAYS = "always";
+    public static final String TEST_COVERAGE_MODE_ON_DEMAND = "onDemand";
+    public static final String TEST_COVERAGE_PROPERTY = "testCoverage";
+    public static final String JACOCO_RUNTIME_CONFIGURATION_NAME = "jacocoRuntime";
+
     public record FeatureScan(Class<?> clazz, String... paths) {
     }
 
@@ -80,6 +107,10 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
 
     private RepositorySettings repositorySettings;
 
+    private String dependencyManagementMode;
+
+    private Boolean testCoverageActive;
+
     protected abstract boolean isLibrary();
 
     @Override
@@ -88,6 +119,7 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
         this.project = project;
         registry = new FeatureRegistry(project.getLogger());
         extension = this.createExtension();
+        dependencyManagementMode = resolveDependencyManagementMode();
         applyPlugins();
         configureConventions();
         registerCommonTasks();
@@ -98,8 +130,14 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
             scanFeatureFiles();
             configureRepositories(proj.getRepositories());
             configureCommonExtensions();
-            configureManagedDependencies(proj.getExtensions().getByType(DependencyManagementExtension.class));
+            if (isDependencyManagementPluginMode()) {
+                configureManagedDependencies(proj.getExtensions().getByType(DependencyManagementExtension.class));
+            } else {
+                configurePlatforms();
+            }
             configureDependencies(proj.getDependencies());
+            configureDependencyLocking();
+            configureFeatureTasks();
         });
     }
 
@@ -122,6 +160,64 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
                              Property<String> defaultVersionProperty, String defaultVersionPropertyName,
                              String keyDefaultVersion
     ) {
+        importsHandler.mavenBom("%s:%s:%s".formatted(group, module,
+            resolveBomVersion(versionProperty, module, defaultVersionProperty, defaultVersionPropertyName, keyDefaultVersion)));
+    }
+
+    /**
+     * Import a given BOM as a Gradle platform (platform dependency management modes).
+     *
+     * @param versionProperty            extra property version (ext)
+     * @param group                      artifact group
+     * @param module                     artifact module name
+     * @param defaultVersionProperty     default version property
+     * @param defaultVersionPropertyName name of the given property (default version)
+     * @param keyDefaultVersion          key of the default version in the {@link DefaultVersions} map
+     */
+    protected void importPlatform(String versionProperty, String group, String module,
+                                  Property<String> defaultVersionProperty, String defaultVersionPropertyName,
+                                  String keyDefaultVersion
+    ) {
+        addPlatform("%s:%s:%s".formatted(group, module,
+            resolveBomVersion(versionProperty, module, defaultVersionProperty, defaultVersionPropertyName, keyDefaultVersion)));
+    }
+
+    /**
+     * Add a platform to the classpaths of the source sets (through the featurePlatforms configuration).
+     *
+     * @param coordinates the platform coordinates (group:name:version)
+     */
+    protected void addPlatform(String coordinates) {
+        Configuration platforms = project.getConfigurations().findByName(FEATURE_PLATFORMS_CONFIGURATION_NAME);
+        if (platforms == null) {
+            platforms = project.getConfigurations().create(FEATURE_PLATFORMS_CONFIGURATION_NAME, configuration -> {
+                configuration.setDescription("Platforms (BOMs) applied to the classpaths of the source sets");
+                configuration.setVisible(false);
+                configuration.setCanBeConsumed(false);
+                configuration.setCanBeResolved(false);
+            });
+            applyPlatforms(platforms);
+        }
+        final org.gradle.api.artifacts.dsl.DependencyHandler dependencies = project.getDependencies();
+        platforms.getDependencies().add(DEPENDENCY_MANAGEMENT_MODE_ENFORCED_PLATFORM.equals(dependencyManagementMode) ?
+            dependencies.enforcedPlatform(coordinates) : dependencies.platform(coordinates));
+    }
+
+    /**
+     * Applies the platforms to the compile, runtime and annotation processor classpaths of every source set. The other
+     * resolvable configurations (tools such as jacocoAnt, etc.) are not affected.
+     *
+     * @param featurePlatforms the featurePlatforms configuration
+     */
+    protected void applyPlatforms(Configuration featurePlatforms) {
+        project.getExtensions().getByType(SourceSetContainer.class).configureEach(sourceSet ->
+            List.of(sourceSet.getCompileClasspathConfigurationName(), sourceSet.getRuntimeClasspathConfigurationName(),
+                sourceSet.getAnnotationProcessorConfigurationName()).forEach(name ->
+                project.getConfigurations().named(name).configure(configuration -> configuration.extendsFrom(featurePlatforms))));
+    }
+
+    private String resolveBomVersion(String versionProperty, String module, Property<String> defaultVersionProperty,
+                                     String defaultVersionPropertyName, String keyDefaultVersion) {
         String bomVersion = ((String) project.getExtensions().getExtraProperties().getProperties().get(versionProperty));
         if (StringUtils.isNotBlank(bomVersion)) {
             info("Importing %s (bom). Version defined by user (%s):  %s".formatted(module, versionProperty, bomVersion));
@@ -133,153 +229,75 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
             bomVersion = DefaultVersions.getInstance().getOrElseThrow(keyDefaultVersion).trim();
             info("Importing %s (bom). Default version: %s".formatted(module, bomVersion));
         }
-        importsHandler.mavenBom("%s:%s:%s".formatted(group, module, bomVersion));
+        return bomVersion;
     }
 
-    protected void scanFeatureFiles() {
-        final List<FeatureScan> featureScanInfoList = this.getFeatureScanList();
-        featureScanInfoList.forEach(info -> {
-            final Set<String> paths = Set.of(info.paths());
-            //Scan base jar files
-            final File jarFile = new File(info.clazz().getProtectionDomain().getCodeSource().getLocation().getPath());
-            if (jarFile.isFile()) {
-                try (JarFile jar = new JarFile(jarFile)) {
-                    final Enumeration<JarEntry> entries = jar.entries();
-                    while (entries.hasMoreElements()) {
-                        final JarEntry jarEntry = entries.nextElement();
-                        if (!jarEntry.isDirectory()) {
-                            final String name = jarEntry.getName();
-                            boolean match = paths.stream().anyMatch(path -> name.startsWith(path + "/"));
-                            if (match) {
-                                project.getLogger().info("Jar file: " + name);
-                                processFile(name);
-                            }
-                        }
-                    }
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            } else {
-                //If it is running from IDE
-                paths.forEach(path -> {
-                    final URL url = Launcher.class.getResource("/" + path);
-                    if (url != null) {
-                        try {
-                            final File apps = new File(url.toURI());
-                            for (File app : Objects.requireNonNull(apps.listFiles())) {
-                                if (!app.isDirectory()) {
-                                    final String name = app.getName();
-                                    if (name.startsWith(path + "/")) {
-                                        project.getLogger().info("Filename: " + name);
-                                        processFile(name);
-                                    }
-                                }
-                            }
-                        } catch (URISyntaxException | IOException ex) {
-                            throw new RuntimeException(ex);
-                        }
-                    }
-                });
-            }
-        });
+    /**
+     * Returns the BOMs added to the generated version catalog.
+     *
+     * @return the BOMs ('group:name' to version)
+     */
+    protected Map<String, String> getCatalogPlatforms() {
+        final Map<String, String> platforms = new TreeMap<>();
+        platforms.put("org.springframework.boot:spring-boot-dependencies", DefaultVersions.getInstance().getOrElseThrow(DefaultVersions.KEY_SPRING_BOOT_VERSION));
+        platforms.put("org.springframework.cloud:spring-cloud-dependencies", extension.getSettings().getDefaultSpringCloudVersion()
+            .getOrElse(DefaultVersions.getInstance().getOrElseThrow(DefaultVersions.KEY_SPRING_CLOUD_VERSION)));
+        return platforms;
     }
 
-    private void processFile(String name) throws IOException {
-        final InputStream resourceAsStream = BaseBuildFeaturesPlugin.class.getClassLoader().getResourceAsStream(name);
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(resourceAsStream)))) {
-            // create temporal file and wrap content...
-            final File file = File.createTempFile("feature-", ".tmp");
-            file.deleteOnExit();
-            try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
-                bw.write(extension.getExtensionName() + " {");
-                bw.write(System.lineSeparator());
-                bw.write("definitions {");
-                bw.write(System.lineSeparator());
-                boolean isFirstLine = true;
-                while (reader.ready()) {
-                    String line = reader.readLine();
-                    //Skip package definition if present
-                    if (isFirstLine && line.startsWith("package ")) {
-                        project.getLogger().trace("Skipping package definition in file '{}'", name);
-                    } else {
-                        bw.write(line);
-                        bw.write(System.lineSeparator());
-                    }
-                    if (isFirstLine) {
-                        isFirstLine = false;
-                    }
-                }
-                bw.write("}");
-                bw.write(System.lineSeparator());
-                bw.write("}");
-                bw.write(System.lineSeparator());
-            }
-            URI resourceURI = file.toURI();
-            project.apply(objectConfigurationAction -> {
-                project.getLogger().info("Applying feature file: %s. Temporal file: %s".formatted(name, resourceURI.toString()));
-                objectConfigurationAction.from(resourceURI);
-            });
+    /**
+     * Resolve the dependency management mode, it is a Gradle property because it decides which plugins are applied.
+     *
+     * @return the dependency management mode
+     */
+    private String resolveDependencyManagementMode() {
+        final Object value = project.findProperty(DEPENDENCY_MANAGEMENT_MODE_PROPERTY);
+        final String mode = value == null ? DEPENDENCY_MANAGEMENT_MODE_PLUGIN : value.toString().trim();
+        if (!List.of(DEPENDENCY_MANAGEMENT_MODE_PLUGIN, DEPENDENCY_MANAGEMENT_MODE_PLATFORM, DEPENDENCY_MANAGEMENT_MODE_ENFORCED_PLATFORM).contains(mode)) {
+            throw new InvalidUserDataException("Invalid dependency management mode '" + mode + "', expected '" + DEPENDENCY_MANAGEMENT_MODE_PLUGIN +
+                "', '" + DEPENDENCY_MANAGEMENT_MODE_PLATFORM + "' or '" + DEPENDENCY_MANAGEMENT_MODE_ENFORCED_PLATFORM + "'");
+        }
+        if (!DEPENDENCY_MANAGEMENT_MODE_PLUGIN.equals(mode)) {
+            info("Dependency management mode: " + mode);
         }
+        return mode;
     }
 
-    protected void configureRepositories(RepositoryHandler repositories) {
-        info("Setting up repositories");
-        if (repositories.findByName("MavenLocal") == null) {
-            repositories.add(repositories.mavenLocal());
-        }
-        if (repositories.findByName("MavenRepo") == null) {
-            repositories.add(repositories.mavenCentral());
+    protected boolean isDependencyManagementPluginMode() {
+        return DEPENDENCY_MANAGEMENT_MODE_PLUGIN.equals(dependencyManagementMode);
+    }
+
+    protected void scanFeatureFiles() {
+        final FeatureCatalog catalog = FeatureCatalog.find(project.getGradle());
+        if (catalog != null) {
+            info("Using the feature catalog loaded by the settings plugin");
+            catalog.getFeatures().forEach(feature -> registry.addFeatureDefinition(feature.key(), feature.name(),
+                feature.dependencies(), feature.activationProperty(), feature.aotCompatible()));
+            return;
         }
-        try {
-            final String releasesRepoUrl = getEnvironmentVariable(repositorySettings.getReleasesRepositoryUrlVar(), false);
-            if (releasesRepoUrl != null) {
-                final String releasesRepoUser = getEnvironmentVariable(repositorySettings.getReleasesRepositoryUsernameVar(), false);
-                final String releasesRepoPass = getEnvironmentVariable(repositorySettings.getReleasesRepositoryPasswordVar(), false);
-                final URI releasesURI = new URI(releasesRepoUrl + (releasesRepoUrl.endsWith("/") ? "maven-releases/" : "/maven-releases/"));
-                boolean isReleasesRepositoryDefined = repositories.findByName(repositorySettings.getReleasesRepositoryName()) != null ||
-                    repositories.stream().filter(repo -> MavenArtifactRepository.class.isAssignableFrom(repo.getClass()))
-                        .anyMatch(repo -> ((MavenArtifactRepository) repo).getUrl().toString().equals(releasesURI.toString()));
-                if (!isReleasesRepositoryDefined) {
-                    info("Adding releases repository");
-                    repositories.maven(repo -> {
-                        repo.setName(repositorySettings.getReleasesRepositoryName());
-                        repo.setUrl(releasesURI);
-                        repo.credentials(cred -> {
-                            cred.setUsername(releasesRepoUser);
-                            cred.setPassword(releasesRepoPass);
-                        });
-                        repo.mavenContent(MavenRepositoryContentDescriptor::releasesOnly);
-                    });
-                } else {
-                    info("Using user-defined releases repository");
-                }
-            }
-            final String snapshotsRepoUrl = getEnvironmentVariable(repositorySettings.getSnapshotsRepositoryUrlVar(), false);
-            if (snapshotsRepoUrl != null) {
-                final String snapshotsRepoUser = getEnvironmentVariable(repositorySettings.getSnapshotsRepositoryUsernameVar(), false);
-                final String snapshotsRepoPass = getEnvironmentVariable(repositorySettings.getSnapshotsRepositoryPasswordVar(), false);
-                final URI snapshotsURI = new URI(snapshotsRepoUrl + (snapshotsRepoUrl.endsWith("/") ? "maven-snapshots/" : "/maven-snapshots/"));
-                boolean isSnapshotsRepositoryDefined = repositories.findByName(repositorySettings.getSnapshotsRepositoryName()) != null ||
-                    repositories.stream().filter(repo -> MavenArtifactRepository.class.isAssignableFrom(repo.getClass()))
-                        .anyMatch(repo -> ((MavenArtifactRepository) repo).getUrl().toString().equals(snapshotsURI.toString()));
-                if (!isSnapshotsRepositoryDefined) {
-                    info("Adding snapshots repository");
-                    repositories.maven(repo -> {
-                        repo.setName(repositorySettings.getSnapshotsRepositoryName());
-                        repo.setUrl(snapshotsURI);
-                        repo.credentials(cred -> {
-                            cred.setUsername(snapshotsRepoUser);
-                            cred.setPassword(snapshotsRepoPass);
-                        });
-                        repo.mavenContent(MavenRepositoryContentDescriptor::snapshotsOnly);
-                    });
-                } else {
-                    info("Using user-defined snapshots repository");
-                }
-            }
-        } catch (URISyntaxException e) {
-            throw new RuntimeException(e);
+        final List<FeatureScan> featureScanList = this.getFeatureScanList();
+        final String fingerprint = FeatureFiles.fingerprint(featureScanList);
+        final List<Feature> features = fingerprint == null ? FeatureFiles.load(project, featureScanList, project.getLogger()) :
+            getFeatureCache().getCatalog(fingerprint, () -> FeatureFiles.load(project, featureScanList, project.getLogger()));
+        features.forEach(feature -> registry.addFeatureDefinition(feature.key(), feature.name(), feature.dependencies(),
+            feature.activationProperty(), feature.aotCompatible()));
+    }
+
+    protected FeatureCacheService getFeatureCache() {
+        return FeatureCacheService.register(project.getGradle(), project.getRootDir()).get();
+    }
+
+    protected void configureRepositories(RepositoryHandler repositories) {
+        final FeatureCatalog catalog = FeatureCatalog.find(project.getGradle());
+        if (catalog != null && catalog.isRepositoriesManaged()) {
+            info("Repositories defined by the settings plugin");
+            return;
         }
+        final SettingsHandler settings = extension.getSettings();
+        new RepositoryConfigurer(repositorySettings, project.getLogger()).configure(repositories, new RepositoryConfigurer.Options(
+            settings.getMavenLocalMode().getOrElse(MAVEN_LOCAL_MODE_ALL), settings.getCompanyGroupPrefix().getOrNull(),
+            settings.getRepositoryContentFilteringEnabled().getOrElse(Boolean.FALSE).booleanValue(),
+            settings.getRepositoryExclusiveContentEnabled().getOrElse(Boolean.FALSE).booleanValue()), registry.getFeaturesEnabled());
     }
 
 
@@ -301,12 +319,14 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
             //Java plugin
             project.getPluginManager().apply(JavaPlugin.class);
         }
-        //Maven dependency management plugin
-        project.getPluginManager().apply(DependencyManagementPlugin.class);
+        //Maven dependency management plugin (replaced by Gradle platforms in the platform modes)
+        if (isDependencyManagementPluginMode()) {
+            project.getPluginManager().apply(DependencyManagementPlugin.class);
+        }
         project.getPluginManager().apply(MavenPublishPlugin.class);
         //Jacoco plugin
         project.afterEvaluate(proj -> {
-            if (Boolean.TRUE.equals(extension.getSettings().getTestCoverageEnabled().getOrElse(Boolean.FALSE))) {
+            if (isTestCoverageActive()) {
                 project.getPluginManager().apply(JacocoPlugin.class);
                 project.getPluginManager().apply(JacocoLogPlugin.class);
             }
@@ -355,16 +375,27 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
             final PublishingExtension publishing = project.getExtensions().getByType(PublishingExtension.class);
             // add repository
             publishing.repositories(artifactRepositories -> {
-                try {
-                    boolean isSnapshot = project.getVersion().toString().endsWith("SNAPSHOT");
-                    if (isSnapshot) {
-                        artifactRepositories.add(project.getRepositories().getByName(this.repositorySettings.getSnapshotsRepositoryName()));
-                    } else {
-                        artifactRepositories.add(project.getRepositories().getByName(this.repositorySettings.getReleasesRepositoryName()));
-                    }
-                } catch (Exception e) {
+                boolean isSnapshot = project.getVersion().toString().endsWith("SNAPSHOT");
+                String repositoryName = isSnapshot ? this.repositorySettings.getSnapshotsRepositoryName() :
+                    this.repositorySettings.getReleasesRepositoryName();
+                //the project repositories are empty when they are declared by the settings plugin
+                ArtifactRepository projectRepository = project.getRepositories().findByName(repositoryName);
+                RepositoryConfigurer.PublishingRepository publishingRepository =
+                    RepositoryConfigurer.publishingRepository(this.repositorySettings, isSnapshot, System::getenv);
+                if (projectRepository != null) {
+                    artifactRepositories.add(projectRepository);
+                } else if (publishingRepository != null) {
+                    artifactRepositories.maven(repo -> {
+                        repo.setName(publishingRepository.name());
+                        repo.setUrl(publishingRepository.url());
+                        repo.credentials(cred -> {
+                            cred.setUsername(publishingRepository.username());
+                            cred.setPassword(publishingRepository.password());
+                        });
+                    });
+                } else {
                     info("No repository found. Setting up fallback repository (mavenLocal)");
-                    artifactRepositories.add(project.getRepositories().getByName("MavenLocal"));
+                    artifactRepositories.mavenLocal();
                 }
             });
 
@@ -377,6 +408,10 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
             }
             mavenPublication.setArtifactId(artifactId);
             mavenPublication.setVersion(project.getVersion().toString());
+            if (!isDependencyManagementPluginMode()) {
+                //the versions managed by the platforms are published as resolved
+                mavenPublication.versionMapping(versionMapping -> versionMapping.allVariants(VariantVersionMappingStrategy::fromResolutionResult));
+            }
         }
     }
 
@@ -393,6 +428,20 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
         project.getTasks().register(BuildFeaturesTask.TASK, BuildFeaturesTask.class);
         project.getTasks().register(PublishFeaturesTask.TASK, PublishFeaturesTask.class);
         project.getTasks().register(PublishFeaturesToMavenLocalTask.TASK, PublishFeaturesToMavenLocalTask.class);
+        project.getTasks().register(LockFeaturesTask.TASK, LockFeaturesTask.class);
+        project.getTasks().register(GenerateVersionCatalogTask.TASK, GenerateVersionCatalogTask.class, task -> {
+            task.getCatalog().set(project.provider(() -> VersionCatalogGenerator.generate(registry.getAllFeatures(), getCatalogPlatforms())));
+            task.getOutputFile().set(project.getLayout().getBuildDirectory().file("version-catalog/libs.versions.toml"));
+        });
+        //running it from the root directory migrates every project of the build
+        project.getTasks().register(MigrateFeaturesTask.TASK, MigrateFeaturesTask.class, task -> {
+            task.getProjectPath().set(project.getPath());
+            task.getBuildFile().set(project.getBuildFile());
+            task.getExtensionName().set(extension.getExtensionName());
+            task.getDeclaredDependencies().set(project.provider(() -> MigrateFeaturesTask.declaredDependencies(project, registry.getFeaturesEnabled())));
+            task.getCandidates().set(project.provider(() -> MigrateFeaturesTask.candidates(registry.getAllFeatures(), registry.getFeaturesEnabled())));
+            task.getReportFile().set(project.getLayout().getBuildDirectory().file(MigrateFeaturesTask.REPORT_PATH));
+        });
     }
 
     /**
@@ -405,6 +454,8 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
      */
     protected void configureCommonTasks() {
         project.getTasks().withType(Test.class).configureEach(Test::useJUnitPlatform);
+        //forking, parallelism and sharding of the tests
+        project.afterEvaluate(proj -> configureTesting());
         //enable/disable publish task
         project.getTasks().getByName("publish", (task) -> {
             boolean publishEnabled = extension.getSettings().getPublishEnabled().getOrElse(isLibrary() ? Boolean.TRUE :
@@ -419,9 +470,13 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
         });
         //Jacoco
         project.afterEvaluate(proj -> {
-            boolean testCoverageEnabled = extension.getSettings().getTestCoverageEnabled().getOrElse(Boolean.FALSE).booleanValue();
-            if (testCoverageEnabled) {
+            if (isTestCoverageActive()) {
+                if (extension.getSettings().getTestCoverageOfflineInstrumentation().getOrElse(Boolean.FALSE).booleanValue()) {
+                    configureOfflineInstrumentation();
+                }
                 JacocoReport jacocoTestReportTask = (JacocoReport) proj.getTasks().getByName("jacocoTestReport");
+                //merge the execution data of all the test tasks
+                jacocoTestReportTask.executionData(proj.getTasks().withType(Test.class));
                 jacocoTestReportTask.reports(configurableReports -> {
                     configurableReports.getXml().getRequired().set(Boolean.TRUE);
                     configurableReports.getHtml().getRequired().set(Boolean.TRUE);
@@ -432,6 +487,7 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
                     testCoverageExclusions.isEmpty() || testCoverageExclusions.stream().noneMatch(pattern -> fileSystem.getPathMatcher("glob:" + pattern).matches(file.toPath()))).collect(Collectors.toSet())
                 );
                 JacocoCoverageVerification jacocoTestCoverageVerificationTask = (JacocoCoverageVerification) proj.getTasks().getByName("jacocoTestCoverageVerification");
+                jacocoTestCoverageVerificationTask.executionData(proj.getTasks().withType(Test.class));
                 jacocoTestCoverageVerificationTask.violationRules(violationRules -> {
                     violationRules.rule(rule -> rule.limit(limit -> limit.setMinimum(extension.getSettings().getTestCoverageMinimumThreshold().getOrElse(BigDecimal.ZERO))));
                 });
@@ -442,12 +498,169 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
                 Task check = proj.getTasks().getByName("check");
                 check.dependsOn(jacocoTestReportTask);
                 check.dependsOn(jacocoTestCoverageVerificationTask);
+                //coverage data for the aggregation plugin of the root project
+                CoverageAggregationPlugin.configureVariants(proj, proj.getExtensions().getByType(SourceSetContainer.class)
+                    .getByName(SourceSet.MAIN_SOURCE_SET_NAME), proj.getTasks().withType(Test.class));
             }
         });
 
 
     }
 
+    /**
+     * Check if the test coverage has to be measured in this build.
+     * <p>
+     * In 'onDemand' mode the coverage is only measured on CI (CI environment variable) or when the project property
+     * 'testCoverage' is set, so local test runs do not pay the instrumentation overhead. It is evaluated once, after the
+     * project evaluation.
+     *
+     * @return true if the test coverage is enabled and requested
+     */
+    private boolean isTestCoverageActive() {
+        if (testCoverageActive == null) {
+            testCoverageActive = calculateTestCoverageActive();
+        }
+        return testCoverageActive;
+    }
+
+    private boolean calculateTestCoverageActive() {
+        if (!extension.getSettings().getTestCoverageEnabled().getOrElse(Boolean.FALSE).booleanValue()) {
+            return false;
+        }
+        final String mode = extension.getSettings().getTestCoverageMode().getOrElse(TEST_COVERAGE_MODE_ALWAYS);
+        if (TEST_COVERAGE_MODE_ALWAYS.equals(mode)) {
+            return true;
+        }
+        if (!TEST_COVERAGE_MODE_ON_DEMAND.equals(mode)) {
+            throw new InvalidUserDataException("Invalid test coverage mode '" + mode + "', expected '" + TEST_COVERAGE_MODE_ALWAYS +
+                "' or '" + TEST_COVERAGE_MODE_ON_DEMAND + "'");
+        }
+        if (project.getProviders().environmentVariable("CI").isPresent() || project.hasProperty(TEST_COVERAGE_PROPERTY)) {
+            return true;
+        }
+        info("Test coverage skipped (use -P" + TEST_COVERAGE_PROPERTY + " to enable it)");
+        return false;
+    }
+
+    /**
+     * Replace the Jacoco agent of the Test tasks by classes instrumented ahead of time.
+     */
+    private void configureOfflineInstrumentation() {
+        final JacocoPluginExtension jacoco = project.getExtensions().getByType(JacocoPluginExtension.class);
+        final Configuration jacocoRuntime = project.getConfigurations().create(JACOCO_RUNTIME_CONFIGURATION_NAME, configuration -> {
+            configuration.setVisible(false);
+            configuration.setCanBeConsumed(false);
+            configuration.defaultDependencies(dependencies -> dependencies.add(
+                project.getDependencies().create("org.jacoco:org.jacoco.agent:" + jacoco.getToolVersion() + ":runtime")));
+        });
+        final SourceSet main = project.getExtensions().getByType(SourceSetContainer.class).getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+        final TaskProvider<InstrumentClassesTask> instrumentClasses = project.getTasks().register(InstrumentClassesTask.TASK, InstrumentClassesTask.class, task -> {
+            task.getJacocoClasspath().from(project.getConfigurations().getByName(JacocoPlugin.ANT_CONFIGURATION_NAME));
+            task.getClassesDirs().from(main.getOutput().getClassesDirs());
+            task.getOutputDir().set(project.getLayout().getBuildDirectory().dir("jacoco/instrumented-classes"));
+        });
+        project.getTasks().withType(Test.class).configureEach(test -> {
+            final JacocoTaskExtension jacocoTask = test.getExtensions().getByType(JacocoTaskExtension.class);
+            jacocoTask.setEnabled(false);
+            test.setClasspath(project.files(instrumentClasses.flatMap(InstrumentClassesTask::getOutputDir))
+                .plus(test.getClasspath().minus(main.getOutput().getClassesDirs())).plus(jacocoRuntime));
+            //the Jacoco runtime reads its configuration from the system properties
+            test.getJvmArgumentProviders().add(() -> List.of("-Djacoco-agent.destfile=" + jacocoTask.getDestinationFile().getAbsolutePath()));
+            test.getOutputs().file(project.provider(jacocoTask::getDestinationFile)).withPropertyName("jacocoDestinationFile").optional();
+            test.doFirst(t -> jacocoTask.getDestinationFile().delete());
+        });
+    }
+
+    /**
+     * Configure the execution of the Test tasks (forks, JUnit parallel execution and test sharding).
+     */
+    private void configureTesting() {
+        final TestingHandler testing = extension.getSettings().getTesting();
+        final boolean parallelForksEnabled = testing.getParallelForksEnabled().getOrElse(Boolean.FALSE).booleanValue();
+        final int maxParallelForks = testing.getMaxParallelForks().getOrElse(Math.max(1, Runtime.getRuntime().availableProcessors() / 2)).intValue();
+        final Long forkEvery = testing.getForkEvery().getOrNull();
+        final boolean junitParallelEnabled = testing.getJunitParallelEnabled().getOrElse(Boolean.FALSE).booleanValue();
+        final Object shardProperty = project.findProperty(TestShard.PROPERTY);
+        final TestShard shard = shardProperty == null ? null : TestShard.parse(shardProperty.toString());
+        if (shard != null) {
+            info("Running test shard " + shard.index() + "/" + shard.total());
+        }
+        project.getTasks().withType(Test.class).configureEach(test -> {
+            if (parallelForksEnabled || testing.getMaxParallelForks().isPresent()) {
+                test.setMaxParallelForks(maxParallelForks);
+            }
+            if (forkEvery != null) {
+                test.setForkEvery(forkEvery.longValue());
+            }
+            if (junitParallelEnabled) {
+                //test classes run concurrently, the methods of a class run in the same thread
+                test.systemProperty("junit.jupiter.execution.parallel.enabled", "true");
+                test.systemProperty("junit.jupiter.execution.parallel.mode.default", "same_thread");
+                test.systemProperty("junit.jupiter.execution.parallel.mode.classes.default", "concurrent");
+                test.systemProperty("junit.jupiter.execution.parallel.config.strategy", "dynamic");
+            }
+            if (shard != null) {
+                test.exclude(element -> !element.isDirectory() && element.getName().endsWith(".class") && !shard.includes(element.getPath()));
+                test.getFilter().setFailOnNoMatchingTests(false);
+            }
+        });
+        if (testing.getImpactSelectionEnabled().getOrElse(Boolean.FALSE).booleanValue()) {
+            configureTestImpact();
+        }
+    }
+
+    /**
+     * Limit the test task to the tests impacted by the changes since the last successful execution.
+     */
+    private void configureTestImpact() {
+        final SourceSetContainer sourceSets = project.getExtensions().getByType(SourceSetContainer.class);
+        final SourceSet main = sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+        final SourceSet test = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME);
+        final Provider<RegularFile> baselineFile = project.getLayout().getBuildDirectory().file("test-impact/baseline.txt");
+        final Provider<RegularFile> pendingBaselineFile = project.getLayout().getBuildDirectory().file("test-impact/baseline.pending");
+        final TaskProvider<TestImpactTask> testImpact = project.getTasks().register(TestImpactTask.TASK, TestImpactTask.class, task -> {
+            task.getMainClasses().from(main.getOutput().getClassesDirs());
+            task.getTestClasses().from(test.getOutput().getClassesDirs());
+            task.getRuntimeClasspath().from(test.getRuntimeClasspath());
+            // the baseline is optional, it does not exist before the first successful execution
+            task.getBaselineFile().set(baselineFile.map(file -> file.getAsFile().isFile() ? file : null));
+            task.getPendingBaselineFile().set(pendingBaselineFile);
+            task.getSelectionFile().set(project.getLayout().getBuildDirectory().file("test-impact/selection.txt"));
+        });
+        project.getTasks().named(JavaPlugin.TEST_TASK_NAME, Test.class, task -> {
+            final Provider<RegularFile> selectionFile = testImpact.flatMap(TestImpactTask::getSelectionFile);
+            task.dependsOn(testImpact);
+            task.getInputs().file(selectionFile).withPropertyName("testImpactSelection");
+            task.onlyIf("Tests impacted by the changes", t -> !readLines(selectionFile.get().getAsFile()).isEmpty());
+            task.doFirst(t -> {
+                final List<String> selection = readLines(selectionFile.get().getAsFile());
+                if (!selection.contains(TestImpactTask.FULL_SUITE)) {
+                    task.getFilter().setFailOnNoMatchingTests(false);
+                    selection.forEach(className -> {
+                        task.getFilter().includeTestsMatching(className);
+                        task.getFilter().includeTestsMatching(className + "$*");
+                    });
+                }
+            });
+            //the baseline is only updated when the tests pass
+            task.doLast(t -> {
+                try {
+                    Files.copy(pendingBaselineFile.get().getAsFile().toPath(), baselineFile.get().getAsFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw new RuntimeException("Unable to update the test impact baseline", e);
+                }
+            });
+        });
+    }
+
+    private static List<String> readLines(File file) {
+        try {
+            return Files.readAllLines(file.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read file '" + file + "'", e);
+        }
+    }
+
     /**
      * Configure actions for certain necessary tasks.
      */
@@ -458,14 +671,46 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
      */
     abstract protected void configureManagedDependencies(DependencyManagementExtension dependencyManagementExtension);
 
+    /**
+     * Configure the platforms (BOMs) of the project when the dependency management plugin is not used.
+     */
+    abstract protected void configurePlatforms();
+
     /**
      * Add build dependencies to the project.
      *
      * @param dependencies handler
      */
     protected void configureDependencies(org.gradle.api.artifacts.dsl.DependencyHandler dependencies) {
-        FeatureManager manager = new FeatureManager(project.getDependencies(), registry, project.getLogger(), project.getExtensions().getExtraProperties());
-        manager.applyDependencies();
+        FeatureManager manager = new FeatureManager(project.getDependencies(), registry, project.getLogger(), project.getExtensions().getExtraProperties(),
+            !isDependencyManagementPluginMode());
+        manager.applyDependencies(featuresEnabled -> getFeatureCache().select(project.getPath(), featuresEnabled));
+    }
+
+    /**
+     * Activate the dependency locking of the resolvable configurations that extend the configurations populated by the
+     * enabled features (e.g. compileClasspath and runtimeClasspath for implementation).
+     */
+    private void configureDependencyLocking() {
+        final Set<String> lockedConfigurations = new TreeSet<>();
+        if (extension.getSettings().getDependencyLockingEnabled().getOrElse(Boolean.FALSE).booleanValue()) {
+            final Set<String> featureConfigurations = registry.getFeaturesEnabled().stream().flatMap(feature -> feature.dependencies().stream())
+                .map(DependencyMetadata::configuration).collect(Collectors.toSet());
+            project.getConfigurations().stream().filter(Configuration::isCanBeResolved)
+                .filter(configuration -> configuration.getHierarchy().stream().anyMatch(parent -> featureConfigurations.contains(parent.getName())))
+                .forEach(configuration -> {
+                    configuration.getResolutionStrategy().activateDependencyLocking();
+                    lockedConfigurations.add(configuration.getName());
+                });
+            info("Dependency locking enabled for " + lockedConfigurations);
+        }
+        project.getTasks().named(LockFeaturesTask.TASK, LockFeaturesTask.class, task -> task.getLockedConfigurations().set(lockedConfigurations));
+    }
+
+    /**
+     * Configure the tasks that depend on the enabled features (called once the features are registered and selected).
+     */
+    protected void configureFeatureTasks() {
     }
 
     /**
@@ -483,16 +728,4 @@ abstract public class BaseBuildFeaturesPlugin<E extends BuildFeaturesExtension>
         project.getLogger().lifecycle(Definiendo_repositorio_para_snapshots);
     }
 
-    private String getEnvironmentVariable(String varName, boolean isRequired) {
-        final String value = System.getenv(varName);
-        if (StringUtils.isBlank(value)) {
-            if (isRequired) {
-                throw new InvalidUserDataException(varName + " is not defined");
-            } else {
-                project.getLogger().warn(varName + " is not defined");
-            }
-        }
-        return value;
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package io.github.arielcarrera.build.features;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.plugins.PluginAware;
+import org.gradle.internal.impldep.org.junit.platform.launcher.Launcher;
+import io.github.arielcarrera.build.features.BaseBuildFeaturesPlugin.FeatureScan;
+import io.github.arielcarrera.build.features.dependencies.Feature;
+import io.github.arielcarrera.build.features.dependencies.FeatureRegistry;
+import io.github.arielcarrera.build.features.dsl.BaseBuildFeaturesExtension;
+import io.github.arielcarrera.build.features.dsl.FeatureCatalogHandler;
+
+/**
+ * Feature definition files.
+ * <p>
+ * Scans the feature definition files and wraps their content in a 'buildFeatures { definitions { ... } }' block in a
+ * temporal file, so they can be applied as scripts to a project or, with the settings plugin, to the settings.
+ *
+ * @author Ariel Carrera
+ */
+public final class FeatureFiles {
+
+    private FeatureFiles() {
+    }
+
+    /**
+     * Loads the feature definitions.
+     *
+     * @param target          the project or settings that applies the feature files
+     * @param featureScanList the classes and paths to scan
+     * @param logger          the logger
+     * @return the feature definitions
+     */
+    public static List<Feature> load(PluginAware target, List<FeatureScan> featureScanList, Logger logger) {
+        final FeatureRegistry registry = new FeatureRegistry(logger);
+        final FeatureCatalogHandler handler = new FeatureCatalogHandler(registry);
+        wrap(featureScanList, BaseBuildFeaturesExtension.EXTENSION_NAME, logger).forEach((name, resourceURI) ->
+            target.apply(objectConfigurationAction -> {
+                logger.info("Applying feature file: %s. Temporal file: %s".formatted(name, resourceURI.toString()));
+                objectConfigurationAction.from(resourceURI).to(handler);
+            }));
+        return registry.getAllFeatures();
+    }
+
+    /**
+     * Computes the fingerprint of the feature files, the path, size and modification time of the scanned jar files.
+     *
+     * @param featureScanList the classes and paths to scan
+     * @return the fingerprint, or null if a class is not loaded from a jar file (e.g. running from the IDE)
+     */
+    public static String fingerprint(List<FeatureScan> featureScanList) {
+        final StringBuilder fingerprint = new StringBuilder();
+        for (FeatureScan info : featureScanList) {
+            final File jarFile = new File(info.clazz().getProtectionDomain().getCodeSource().getLocation().getPath());
+            if (!jarFile.isFile()) {
+                return null;
+            }
+            fingerprint.append(jarFile.getAbsolutePath()).append(':').append(jarFile.length()).append(':').append(jarFile.lastModified())
+                .append(':').append(String.join(",", new TreeSet<>(Set.of(info.paths())))).append(';');
+        }
+        return fingerprint.toString();
+    }
+
+    private static Map<String, URI> wrap(List<FeatureScan> featureScanList, String extensionName, Logger logger) {
+        final Map<String, URI> scripts = new LinkedHashMap<>();
+        featureScanList.forEach(info -> {
+            final Set<String> paths = Set.of(info.paths());
+            //Scan base jar files
+            final File jarFile = new File(info.clazz().getProtectionDomain().getCodeSource().getLocation().getPath());
+            if (jarFile.isFile()) {
+                try (JarFile jar = new JarFile(jarFile)) {
+                    final Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        final JarEntry jarEntry = entries.nextElement();
+                        if (!jarEntry.isDirectory()) {
+                            final String name = jarEntry.getName();
+                            boolean match = paths.stream().anyMatch(path -> name.startsWith(path + "/"));
+                            if (match) {
+                                logger.info("Jar file: " + name);
+                                scripts.put(name, wrapFile(name, extensionName, logger));
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            } else {
+                //If it is running from IDE
+                paths.forEach(path -> {
+                    final URL url = Launcher.class.getResource("/" + path);
+                    if (url != null) {
+                        try {
+                            final File apps = new File(url.toURI());
+                            for (File app : Objects.requireNonNull(apps.listFiles())) {
+                                if (!app.isDirectory()) {
+                                    final String name = app.getName();
+                                    if (name.startsWith(path + "/")) {
+                                        logger.info("Filename: " + name);
+                                        scripts.put(name, wrapFile(name, extensionName, logger));
+                                    }
+                                }
+                            }
+                        } catch (URISyntaxException | IOException ex) {
+                            throw new RuntimeException(ex);
+                        }
+                    }
+                });
+            }
+        });
+        return scripts;
+    }
+
+    private static URI wrapFile(String name, String extensionName, Logger logger) throws IOException {
+        final InputStream resourceAsStream = BaseBuildFeaturesPlugin.class.getClassLoader().getResourceAsStream(name);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(resourceAsStream)))) {
+            // create temporal file and wrap content...
+            final File file = File.createTempFile("feature-", ".tmp");
+            file.deleteOnExit();
+            try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
+                bw.write(extensionName + " {");
+                bw.write(System.lineSeparator());
+                bw.write("definitions {");
+                bw.write(System.lineSeparator());
+                boolean isFirstLine = true;
+                while (reader.ready()) {
+                    String line = reader.readLine();
+                    //Skip package definition if present
+                    if (isFirstLine && line.startsWith("package ")) {
+                        logger.trace("Skipping package definition in file '{}'", name);
+                    } else {
+                        bw.write(line);
+                        bw.write(System.lineSeparator());
+                    }
+                    if (isFirstLine) {
+                        isFirstLine = false;
+                    }
+                }
+                bw.write("}");
+                bw.write(System.lineSeparator());
+                bw.write("}");
+                bw.write(System.lineSeparator());
+            }
+            return file.toURI();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package io.github.arielcarrera.build.features;
+
+import static io.github.arielcarrera.build.features.BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_ALL;
+import static io.github.arielcarrera.build.features.BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_DISABLED;
+import static io.github.arielcarrera.build.features.BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_SNAPSHOTS;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenRepositoryContentDescriptor;
+import org.gradle.api.logging.Logger;
+import io.github.arielcarrera.build.features.dependencies.DependencyMetadata;
+import io.github.arielcarrera.build.features.dependencies.Feature;
+import io.spring.gradle.dependencymanagement.org.apache.commons.lang3.StringUtils;
+
+/**
+ * Configures the repositories of a project or, with the settings plugin, of the whole build.
+ *
+ * @author Ariel Carrera
+ */
+public class RepositoryConfigurer {
+
+    /**
+     * Repository options.
+     *
+     * @param mavenLocalMode          usage of Maven Local (all, snapshots or disabled)
+     * @param companyGroupPrefix      group prefix of the company artifacts, may be null
+     * @param contentFilteringEnabled restricts the content of each repository
+     * @param exclusiveContentEnabled the company groups are only looked up in the company repositories
+     */
+    public record Options(String mavenLocalMode, String companyGroupPrefix, boolean contentFilteringEnabled, boolean exclusiveContentEnabled) {
+    }
+
+    /**
+     * Company repository where the artifacts are published.
+     *
+     * @param name     the repository name
+     * @param url      the repository url
+     * @param username the username, may be null
+     * @param password the password, may be null
+     */
+    public record PublishingRepository(String name, URI url, String username, String password) {
+    }
+
+    private static final String RELEASES_PATH = "maven-releases/";
+    private static final String SNAPSHOTS_PATH = "maven-snapshots/";
+
+    private final RepositorySettings repositorySettings;
+    private final Logger logger;
+    private final UnaryOperator<String> environment;
+
+    public RepositoryConfigurer(RepositorySettings repositorySettings, Logger logger) {
+        this(repositorySettings, logger, System::getenv);
+    }
+
+    /**
+     * Creates a repository configurer.
+     *
+     * @param repositorySettings the repository settings
+     * @param logger             the logger
+     * @param environment        the environment variables (repository urls and credentials)
+     */
+    public RepositoryConfigurer(RepositorySettings repositorySettings, Logger logger, UnaryOperator<String> environment) {
+        this.repositorySettings = repositorySettings;
+        this.logger = logger;
+        this.environment = environment;
+    }
+
+    /**
+     * Configure the repositories.
+     *
+     * @param repositories    the repositories of the project or of the settings (dependency resolution management)
+     * @param options         the repository options
+     * @param enabledFeatures the enabled features, their groups are excluded from the company repositories when there is no
+     *                        company group prefix (empty if unknown)
+     */
+    public void configure(RepositoryHandler repositories, Options options, List<Feature> enabledFeatures) {
+        info("Setting up repositories");
+        final String mavenLocalMode = options.mavenLocalMode() == null ? MAVEN_LOCAL_MODE_ALL : options.mavenLocalMode();
+        final String companyGroupPrefix = options.companyGroupPrefix();
+        final String companyGroupRegex = companyGroupPrefix == null || companyGroupPrefix.isBlank() ? null : groupRegex(companyGroupPrefix);
+        final boolean contentFilteringEnabled = options.contentFilteringEnabled();
+        final boolean exclusiveContentEnabled = options.exclusiveContentEnabled();
+        if (exclusiveContentEnabled && companyGroupRegex == null) {
+            throw new InvalidUserDataException("The repository exclusive content mode requires the setting 'companyGroupPrefix'");
+        }
+        //groups of the enabled features, resolved from Maven Central
+        final Set<String> featureGroups = enabledFeatures.stream().flatMap(feature -> feature.dependencies().stream())
+            .map(DependencyMetadata::group).filter(group -> companyGroupRegex == null || !group.matches(companyGroupRegex))
+            .collect(Collectors.toCollection(TreeSet::new));
+        if (repositories.findByName("MavenLocal") == null) {
+            switch (mavenLocalMode) {
+                case MAVEN_LOCAL_MODE_ALL -> repositories.add(repositories.mavenLocal());
+                case MAVEN_LOCAL_MODE_SNAPSHOTS -> repositories.mavenLocal(repo -> repo.mavenContent(content -> {
+                    content.snapshotsOnly();
+                    if (companyGroupRegex != null) {
+                        content.includeGroupByRegex(companyGroupRegex);
+                    }
+                }));
+                case MAVEN_LOCAL_MODE_DISABLED -> info("Maven local repository disabled");
+                default -> throw new InvalidUserDataException("Invalid maven local mode '" + mavenLocalMode + "', expected '" +
+                    MAVEN_LOCAL_MODE_ALL + "', '" + MAVEN_LOCAL_MODE_SNAPSHOTS + "' or '" + MAVEN_LOCAL_MODE_DISABLED + "'");
+            }
+        }
+        if (repositories.findByName("MavenRepo") == null) {
+            repositories.mavenCentral(repo -> {
+                if (contentFilteringEnabled && companyGroupRegex != null) {
+                    //company artifacts are never looked up in Maven Central
+                    repo.content(content -> content.excludeGroupByRegex(companyGroupRegex));
+                }
+            });
+        }
+        final List<MavenArtifactRepository> companyRepositories = new ArrayList<>();
+        try {
+            final String releasesRepoUrl = getEnvironmentVariable(repositorySettings.getReleasesRepositoryUrlVar(), false);
+            if (releasesRepoUrl != null) {
+                final String releasesRepoUser = getEnvironmentVariable(repositorySettings.getReleasesRepositoryUsernameVar(), false);
+                final String releasesRepoPass = getEnvironmentVariable(repositorySettings.getReleasesRepositoryPasswordVar(), false);
+                final URI releasesURI = repositoryUri(releasesRepoUrl, RELEASES_PATH);
+                boolean isReleasesRepositoryDefined = repositories.findByName(repositorySettings.getReleasesRepositoryName()) != null ||
+                    repositories.stream().filter(repo -> MavenArtifactRepository.class.isAssignableFrom(repo.getClass()))
+                        .anyMatch(repo -> ((MavenArtifactRepository) repo).getUrl().toString().equals(releasesURI.toString()));
+                if (!isReleasesRepositoryDefined) {
+                    info("Adding releases repository");
+                    repositories.maven(repo -> {
+                        repo.setName(repositorySettings.getReleasesRepositoryName());
+                        repo.setUrl(releasesURI);
+                        if (releasesRepoUser != null) {
+                            repo.credentials(cred -> {
+                                cred.setUsername(releasesRepoUser);
+                                cred.setPassword(releasesRepoPass);
+                            });
+                        }
+                        repo.mavenContent(content -> {
+                            content.releasesOnly();
+                            if (contentFilteringEnabled && !exclusiveContentEnabled) {
+                                filterCompanyContent(content, companyGroupRegex, featureGroups);
+                            }
+                        });
+                        companyRepositories.add(repo);
+                    });
+                } else {
+                    info("Using user-defined releases repository");
+                }
+            }
+            final String snapshotsRepoUrl = getEnvironmentVariable(repositorySettings.getSnapshotsRepositoryUrlVar(), false);
+            if (snapshotsRepoUrl != null) {
+                final String snapshotsRepoUser = getEnvironmentVariable(repositorySettings.getSnapshotsRepositoryUsernameVar(), false);
+                final String snapshotsRepoPass = getEnvironmentVariable(repositorySettings.getSnapshotsRepositoryPasswordVar(), false);
+                final URI snapshotsURI = repositoryUri(snapshotsRepoUrl, SNAPSHOTS_PATH);
+                boolean isSnapshotsRepositoryDefined = repositories.findByName(repositorySettings.getSnapshotsRepositoryName()) != null ||
+                    repositories.stream().filter(repo -> MavenArtifactRepository.class.isAssignableFrom(repo.getClass()))
+                        .anyMatch(repo -> ((MavenArtifactRepository) repo).getUrl().toString().equals(snapshotsURI.toString()));
+                if (!isSnapshotsRepositoryDefined) {
+                    info("Adding snapshots repository");
+                    repositories.maven(repo -> {
+                        repo.setName(repositorySettings.getSnapshotsRepositoryName());
+                        repo.setUrl(snapshotsURI);
+                        if (snapshotsRepoUser != null) {
+                            repo.credentials(cred -> {
+                                cred.setUsername(snapshotsRepoUser);
+                                cred.setPassword(snapshotsRepoPass);
+                            });
+                        }
+                        repo.mavenContent(content -> {
+                            content.snapshotsOnly();
+                            if (contentFilteringEnabled && !exclusiveContentEnabled) {
+                                filterCompanyContent(content, companyGroupRegex, featureGroups);
+                            }
+                        });
+                        companyRepositories.add(repo);
+                    });
+                } else {
+                    info("Using user-defined snapshots repository");
+                }
+            }
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+        if (exclusiveContentEnabled && !companyRepositories.isEmpty()) {
+            //company groups are only looked up in the company repositories
+            repositories.exclusiveContent(exclusive -> exclusive
+                .forRepositories(companyRepositories.toArray(MavenArtifactRepository[]::new))
+                .filter(filter -> filter.includeGroupByRegex(companyGroupRegex)));
+        }
+    }
+
+    /**
+     * Gets the company repository where the artifacts are published, declared from the repository settings (it does not
+     * depend on the repositories of the project, which are empty when the settings plugin declares them).
+     *
+     * @param repositorySettings the repository settings
+     * @param snapshot           if the version is a snapshot
+     * @param environment        the environment variables
+     * @return the repository, or null if its url is not defined
+     */
+    public static PublishingRepository publishingRepository(RepositorySettings repositorySettings, boolean snapshot,
+                                                            UnaryOperator<String> environment) {
+        final String url = environment.apply(snapshot ? repositorySettings.getSnapshotsRepositoryUrlVar() :
+            repositorySettings.getReleasesRepositoryUrlVar());
+        if (StringUtils.isBlank(url)) {
+            return null;
+        }
+        try {
+            return snapshot ?
+                new PublishingRepository(repositorySettings.getSnapshotsRepositoryName(), repositoryUri(url, SNAPSHOTS_PATH),
+                    environment.apply(repositorySettings.getSnapshotsRepositoryUsernameVar()),
+                    environment.apply(repositorySettings.getSnapshotsRepositoryPasswordVar())) :
+                new PublishingRepository(repositorySettings.getReleasesRepositoryName(), repositoryUri(url, RELEASES_PATH),
+                    environment.apply(repositorySettings.getReleasesRepositoryUsernameVar()),
+                    environment.apply(repositorySettings.getReleasesRepositoryPasswordVar()));
+        } catch (URISyntaxException e) {
+            throw new InvalidUserDataException("Invalid repository url '" + url + "'", e);
+        }
+    }
+
+    private static URI repositoryUri(String baseUrl, String path) throws URISyntaxException {
+        return new URI(baseUrl + (baseUrl.endsWith("/") ? path : "/" + path));
+    }
+
+    /**
+     * Restrict a company repository to the company groups, or exclude the groups of the enabled features (published in Maven
+     * Central) when there is no company group prefix.
+     */
+    private static void filterCompanyContent(MavenRepositoryContentDescriptor content, String companyGroupRegex, Set<String> featureGroups) {
+        if (companyGroupRegex != null) {
+            content.includeGroupByRegex(companyGroupRegex);
+        } else {
+            featureGroups.forEach(content::excludeGroup);
+        }
+    }
+
+    /**
+     * Regular expression matching a group and its subgroups (e.g. 'com.acme' matches 'com.acme' and 'com.acme.billing').
+     */
+    private static String groupRegex(String groupPrefix) {
+        return Pattern.quote(groupPrefix) + "(\\..*)?";
+    }
+
+    private void info(String message) {
+        logger.lifecycle(message);
+    }
+
+    private String getEnvironmentVariable(String varName, boolean isRequired) {
+        final String value = environment.apply(varName);
+        if (StringUtils.isBlank(value)) {
+            if (isRequired) {
+                throw new InvalidUserDataException(varName + " is not defined");
+            } else {
+                logger.warn(varName + " is not defined");
+            }
+        }
+        return value;
+    }
+}
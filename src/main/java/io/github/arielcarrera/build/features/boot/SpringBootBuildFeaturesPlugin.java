@@ -1,25 +1,58 @@
 package io.github.arielcarrera.build.features.boot;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.logging.Logger;
+import org.gradle.api.plugins.BasePlugin;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.plugins.UnknownPluginException;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.ClasspathNormalizer;
+import org.gradle.api.tasks.Exec;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.Sync;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.testing.Test;
 import org.gradle.jvm.tasks.Jar;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.jvm.toolchain.JavaToolchainService;
+import org.gradle.process.ProcessForkOptions;
 import org.springframework.boot.gradle.dsl.SpringBootExtension;
 import org.springframework.boot.gradle.plugin.SpringBootPlugin;
 import org.springframework.boot.gradle.tasks.bundling.BootJar;
 import org.springframework.boot.gradle.tasks.run.BootRun;
 import io.github.arielcarrera.build.features.BaseBuildFeaturesPlugin;
 import io.github.arielcarrera.build.features.DefaultVersions;
+import io.github.arielcarrera.build.features.boot.compose.ComposeClient;
+import io.github.arielcarrera.build.features.boot.compose.ComposeService;
+import io.github.arielcarrera.build.features.boot.compose.ComposeShutdownService;
+import io.github.arielcarrera.build.features.boot.dsl.RuntimeHandler;
 import io.github.arielcarrera.build.features.boot.dsl.SpringBootBuildFeaturesExtension;
+import io.github.arielcarrera.build.features.boot.env.DotEnvFile;
+import io.github.arielcarrera.build.features.boot.layers.FeatureLayers;
+import io.github.arielcarrera.build.features.boot.runtime.RuntimeProfile;
+import io.github.arielcarrera.build.features.boot.tasks.BaseComposeTask;
+import io.github.arielcarrera.build.features.boot.tasks.BootReloadTask;
+import io.github.arielcarrera.build.features.boot.tasks.ExportJavaToolOptionsTask;
 import io.github.arielcarrera.build.features.boot.tasks.RunAppConfigTask;
 import io.github.arielcarrera.build.features.boot.tasks.StopAppConfigTask;
+import io.github.arielcarrera.build.features.dependencies.Feature;
+import io.github.arielcarrera.build.features.utils.AhoCorasickMatcher;
 import io.spring.gradle.dependencymanagement.dsl.DependencyManagementExtension;
 
 /**
@@ -31,6 +64,21 @@ public class SpringBootBuildFeaturesPlugin extends BaseBuildFeaturesPlugin<Sprin
     public static final String PLUGIN_ID = SpringBootBuildFeaturesPlugin.class.getPackageName();
     private static final List<String> DEFAULT_SECRET_VAR_NAMES = List.of("PASSWORD", "PASS", "APIKEY", "API_KEY");
     private static final String FEATURES_PATH = "buildFeatures";
+    public static final String BOOT_RUN_FAST_TASK_NAME = "bootRunFast";
+    public static final String BOOT_RUN_FAST_CONFIGURATION_NAME = "bootRunFastDevtools";
+    private static final String DEVTOOLS_DEPENDENCY = "org.springframework.boot:spring-boot-devtools";
+    private static final String RESTART_PATH = "buildFeatures/restart";
+    private static final String RESTART_TRIGGER_FILE = ".restarttrigger";
+    public static final String CDS_ARCHIVE_TASK_NAME = "cdsArchive";
+    private static final String CDS_LIBS_TASK_NAME = "cdsLibs";
+    private static final String CDS_JAR_TASK_NAME = "cdsJar";
+    private static final String CDS_DIST_TASK_NAME = "cdsDist";
+    private static final String CDS_PATH = "cds/app";
+    private static final String CDS_APP_JAR = "app.jar";
+    private static final String CDS_ARCHIVE = "app.jsa";
+    private static final String AOT_PLUGIN_ID = "org.springframework.boot.aot";
+    private static final String NATIVE_PLUGIN_ID = "org.graalvm.buildtools.native";
+    private static final String AOT_SOURCE_SET_NAME = "aot";
     protected static final List<FeatureScan> FEATURE_SCAN_LIST = List.of(new FeatureScan(BaseBuildFeaturesPlugin.class, FEATURES_PATH));
 
     @Override
@@ -69,15 +117,64 @@ public class SpringBootBuildFeaturesPlugin extends BaseBuildFeaturesPlugin<Sprin
 
     @Override
     protected void registerPluginTasks() {
-        project.getTasks().register(RunAppConfigTask.RUN_APP_CONFIG_TASK_NAME, RunAppConfigTask.class, task -> {
+        project.getTasks().withType(BaseComposeTask.class).configureEach(task -> {
             task.getDockerComposeFile().set(extension.getSettings().getDockerComposeFile());
             task.getDockerComposeName().set(extension.getSettings().getDockerComposeName());
             task.getDockerComposeProject().set(extension.getSettings().getDockerComposeProject());
+            task.getContainerRuntime().set(extension.getSettings().getContainerRuntime());
+            task.getContainerRuntimeExecutable().set(extension.getSettings().getContainerRuntimeExecutable());
+            task.getDockerComposeTimeout().set(extension.getSettings().getDockerComposeTimeout());
+        });
+        project.getTasks().register(RunAppConfigTask.RUN_APP_CONFIG_TASK_NAME, RunAppConfigTask.class, task -> {
+            task.getDockerComposeServices().set(project.provider(() -> extension.getSettings().getDockerComposeServices().stream()
+                .map(service -> new ComposeService(service.getName(), service.getDependsOn().getOrElse(List.of()),
+                    service.getTimeout().orElse(extension.getSettings().getDockerComposeTimeout())
+                        .getOrElse(BaseComposeTask.DEFAULT_TIMEOUT_SECONDS)))
+                .toList()));
+            task.getDockerComposeReuseEnabled().set(extension.getSettings().getDockerComposeReuseEnabled());
+            // compose also reads the '.env' file of the working directory
+            task.getDockerComposeFiles().from(project.provider(() ->
+                Stream.of(extension.getSettings().getDockerComposeFile().getOrElse(ComposeClient.DEFAULT_COMPOSE_FILE), ".env")
+                    .map(project::file).filter(File::isFile).toList()));
+            task.getStateFile().set(project.getLayout().getBuildDirectory().file("buildFeatures/compose.state"));
+        });
+        // bootRun variant that keeps the JVM alive and restarts the application classloader (devtools) on bootReload
+        Provider<Directory> restartDir = project.getLayout().getBuildDirectory().dir(RESTART_PATH);
+        // devtools is only in the bootRunFast classpath, so bootRun and the archives never include it
+        Configuration devtools = project.getConfigurations().create(BOOT_RUN_FAST_CONFIGURATION_NAME, configuration -> {
+            configuration.setDescription("Spring Boot devtools, only used by the bootRunFast classpath");
+            configuration.setVisible(false);
+            configuration.setCanBeConsumed(false);
+        });
+        project.getDependencies().add(BOOT_RUN_FAST_CONFIGURATION_NAME, DEVTOOLS_DEPENDENCY);
+        project.getTasks().register(BOOT_RUN_FAST_TASK_NAME, BootRun.class, task -> {
+            BootRun bootRun = (BootRun) project.getTasks().getByName(SpringBootPlugin.BOOT_RUN_TASK_NAME);
+            task.setDescription("Runs this project as a Spring Boot application restarting it on each bootReload execution.");
+            task.setGroup(bootRun.getGroup());
+            task.getMainClass().convention(bootRun.getMainClass());
+            task.setClasspath(getApplicationClasspath().plus(devtools));
+            task.systemProperty("spring.devtools.restart.enabled", "true");
+            task.systemProperty("spring.devtools.restart.additional-paths", restartDir.get().getAsFile().getAbsolutePath());
+            task.systemProperty("spring.devtools.restart.trigger-file", RESTART_TRIGGER_FILE);
+            task.doFirst(t -> restartDir.get().getAsFile().mkdirs());
+        });
+        project.getTasks().register(ExportJavaToolOptionsTask.TASK, ExportJavaToolOptionsTask.class, task -> {
+            task.getJvmArgs().set(project.provider(this::calculateRuntimeJvmArgs));
+            task.getOutputFile().set(project.getLayout().getBuildDirectory().file("runtime/java-tool-options.env"));
         });
+        project.getTasks().register(BootReloadTask.TASK, BootReloadTask.class, task -> {
+            task.dependsOn(JavaPlugin.CLASSES_TASK_NAME);
+            task.getTriggerFile().set(restartDir.map(dir -> dir.file(RESTART_TRIGGER_FILE)));
+        });
+        Provider<ComposeShutdownService> shutdownService = project.getGradle().getSharedServices()
+            .registerIfAbsent(ComposeShutdownService.NAME, ComposeShutdownService.class, spec -> {
+            });
         project.getTasks().register(StopAppConfigTask.STOP_APP_CONFIG_TASK_NAME, StopAppConfigTask.class, task -> {
-            task.getDockerComposeFile().set(extension.getSettings().getDockerComposeFile());
-            task.getDockerComposeName().set(extension.getSettings().getDockerComposeName());
-            task.getDockerComposeProject().set(extension.getSettings().getDockerComposeProject());
+            task.getDockerComposeServices().set(project.provider(() ->
+                extension.getSettings().getDockerComposeServices().getNames().stream().toList()));
+            task.getDockerComposeStopAsync().set(extension.getSettings().getDockerComposeStopAsync());
+            task.getShutdownService().set(shutdownService);
+            task.usesService(shutdownService);
         });
     }
 
@@ -99,40 +196,59 @@ public class SpringBootBuildFeaturesPlugin extends BaseBuildFeaturesPlugin<Sprin
                 });
             });
         });
-        // add custom bootRun
+        configureClassDataSharing();
+        // runtime profile (JVM tuning), the same arguments are used by bootRun and the exported JAVA_TOOL_OPTIONS, the tests
+        // only get the collector and the virtual threads
         project.getTasks().withType(BootRun.class).configureEach(bootRun -> {
-            Boolean isDockerComposeEnabled = extension.getSettings().getDockerComposeEnabled().getOrElse(Boolean.TRUE);
-            if (isDockerComposeEnabled) {
-                bootRun.doFirst(task -> {
-                    String envFilePath = extension.getSettings().getEnvFile().getOrElse(".env");
-                    //set environment variables
-                    info("Looking for .env file '" + envFilePath + "'...");
-                    File envFile = project.file(envFilePath);
-                    if (envFile.exists() && envFile.canRead()) {
-                        info("Env file found.\nSetting up environment variables...");
-                        Boolean showEnvVarsEnabled = extension.getSettings().getShowEnvVars().getOrElse(Boolean.TRUE);
-                        if (!showEnvVarsEnabled) {
-                            info("Property 'showEnvVarsEnabled' disabled");
-                        }
-                        Set<String> calculatedSecretNames = calculateSecretNames();
-                        processEnvFile(bootRun, envFile, showEnvVarsEnabled, calculatedSecretNames, project.getLogger());
-                    } else {
-                        info("Env file not found. File '" + envFilePath + "'.");
+            bootRun.getJvmArgumentProviders().add(this::calculateRuntimeJvmArgs);
+            bootRun.getOptimizedLaunch().set(extension.getSettings().getRuntime().getFastStartup().orElse(Boolean.TRUE));
+        });
+        project.getTasks().withType(Test.class).configureEach(test -> test.getJvmArgumentProviders().add(this::calculateTestJvmArgs));
+        // add custom bootRun
+        project.getTasks().withType(BootRun.class).configureEach(this::configureApplicationEnvironment);
+    }
+
+    /**
+     * Configures the environment of a task that runs the application: the variables of the env file and the docker
+     * compose services.
+     *
+     * @param task the task (bootRun, bootRunFast or the AppCDS training run)
+     */
+    private <T extends Task & ProcessForkOptions> void configureApplicationEnvironment(T task) {
+        Boolean isDockerComposeEnabled = extension.getSettings().getDockerComposeEnabled().getOrElse(Boolean.TRUE);
+        if (isDockerComposeEnabled) {
+            task.doFirst(t -> {
+                String envFilePath = extension.getSettings().getEnvFile().getOrElse(".env");
+                //set environment variables
+                info("Looking for .env file '" + envFilePath + "'...");
+                File envFile = project.file(envFilePath);
+                if (envFile.exists() && envFile.canRead()) {
+                    info("Env file found.\nSetting up environment variables...");
+                    Boolean showEnvVarsEnabled = extension.getSettings().getShowEnvVars().getOrElse(Boolean.TRUE);
+                    if (!showEnvVarsEnabled) {
+                        info("Property 'showEnvVarsEnabled' disabled");
                     }
-                    info("Starting application...");
-                });
-                String composeFilename = extension.getSettings().getDockerComposeFile().getOrElse("compose.yaml");
-                File composeFile = new File(composeFilename);
-                if (composeFile.exists() && composeFile.isFile() && composeFile.canRead()) {
-                    info("Docker compose support enabled");
-                    bootRun.dependsOn(RunAppConfigTask.RUN_APP_CONFIG_TASK_NAME);
+                    Set<String> calculatedSecretNames = calculateSecretNames();
+                    processEnvFile(task, envFile, showEnvVarsEnabled, calculatedSecretNames, project.getLogger());
                 } else {
-                    info("Docker compose not found");
+                    info("Env file not found. File '" + envFilePath + "'.");
+                }
+                info("Starting application...");
+            });
+            String composeFilename = extension.getSettings().getDockerComposeFile().getOrElse(ComposeClient.DEFAULT_COMPOSE_FILE);
+            File composeFile = project.file(composeFilename);
+            if (composeFile.exists() && composeFile.isFile() && composeFile.canRead()) {
+                info("Docker compose support enabled");
+                task.dependsOn(RunAppConfigTask.RUN_APP_CONFIG_TASK_NAME);
+                if (extension.getSettings().getDockerComposeStopOnExit().getOrElse(Boolean.FALSE)) {
+                    task.finalizedBy(StopAppConfigTask.STOP_APP_CONFIG_TASK_NAME);
                 }
             } else {
-                info("Docker compose support disabled");
+                info("Docker compose not found");
             }
-        });
+        } else {
+            info("Docker compose support disabled");
+        }
     }
 
     @Override
@@ -148,41 +264,232 @@ public class SpringBootBuildFeaturesPlugin extends BaseBuildFeaturesPlugin<Sprin
         });
     }
 
+    @Override
+    protected void configurePlatforms() {
+        //the Spring Boot BOM is only imported automatically with the dependency management plugin
+        info("Importing %s (bom). Version of the Spring Boot plugin".formatted(SpringBootPlugin.BOM_COORDINATES));
+        addPlatform(SpringBootPlugin.BOM_COORDINATES);
+        if (extension.getSettings().getImportSpringCloudBomEnabled().getOrElse(Boolean.TRUE)) {
+            importPlatform("springCloudVersion", "org.springframework.cloud", "spring-cloud-dependencies",
+                extension.getSettings().getDefaultSpringCloudVersion(), "defaultSpringCloudVersion",
+                DefaultVersions.KEY_SPRING_CLOUD_VERSION);
+        } else {
+            info("Skipping import of spring-cloud-dependencies (bom)");
+        }
+    }
+
+    /**
+     * Configures the generation of the AppCDS archive (opt-in by the setting 'cdsEnabled').
+     * <p>
+     * CDS only archives classes loaded from jar files, so the application runs from a jar of the main classes with the
+     * dependencies referenced from its manifest (build/cds/app). A training run starts the application until the context is
+     * refreshed and dumps the archive, which is regenerated only when the classpath changes.
+     */
+    private void configureClassDataSharing() {
+        project.afterEvaluate(proj -> {
+            if (!extension.getSettings().getCdsEnabled().getOrElse(Boolean.FALSE)) {
+                return;
+            }
+            info("Class Data Sharing enabled");
+            registerClassDataSharingTasks();
+        });
+    }
+
+    private void registerClassDataSharingTasks() {
+        final Provider<Directory> cdsDir = project.getLayout().getBuildDirectory().dir(CDS_PATH);
+        final Provider<RegularFile> cdsAppJar = cdsDir.map(dir -> dir.file(CDS_APP_JAR));
+        final Provider<RegularFile> cdsArchive = cdsDir.map(dir -> dir.file(CDS_ARCHIVE));
+        final SourceSet main = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets()
+            .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+        // the runtime classpath only, the developmentOnly dependencies (devtools, etc.) are not packaged
+        final FileCollection libraries = main.getRuntimeClasspath().filter(File::isFile);
+        final Provider<String> mainClass = project.getTasks().named(SpringBootPlugin.BOOT_RUN_TASK_NAME, BootRun.class)
+            .flatMap(BootRun::getMainClass);
+        TaskProvider<Sync> cdsLibs = project.getTasks().register(CDS_LIBS_TASK_NAME, Sync.class, task -> {
+            task.from(libraries);
+            task.into(cdsDir.map(dir -> dir.dir("lib")));
+        });
+        TaskProvider<Jar> cdsJar = project.getTasks().register(CDS_JAR_TASK_NAME, Jar.class, task -> {
+            task.from(main.getOutput());
+            task.dependsOn(cdsLibs, SpringBootPlugin.RESOLVE_MAIN_CLASS_NAME_TASK_NAME);
+            task.getDestinationDirectory().set(cdsDir);
+            task.getArchiveFileName().set(CDS_APP_JAR);
+            // the manifest is calculated at execution time from these inputs
+            task.getInputs().files(libraries).withPropertyName("libraries").withNormalizer(ClasspathNormalizer.class);
+            task.getInputs().property("mainClass", mainClass);
+            task.doFirst(t -> task.manifest(manifest -> manifest.attributes(Map.of("Main-Class", mainClass.get(),
+                "Class-Path", libraries.getFiles().stream().map(file -> "lib/" + file.getName()).collect(Collectors.joining(" "))))));
+        });
+        // the plain jar generation is disabled for every Jar task
+        project.getTasks().withType(Jar.class).matching(jar -> jar.getName().equals(CDS_JAR_TASK_NAME))
+            .configureEach(jar -> jar.setEnabled(true));
+        TaskProvider<Exec> cdsArchiveTask = project.getTasks().register(CDS_ARCHIVE_TASK_NAME, Exec.class, task -> {
+            task.setDescription("Generates the AppCDS archive of the application with a training run");
+            task.dependsOn(cdsJar);
+            task.getInputs().files(cdsJar, cdsLibs).withPropertyName("classpath").withNormalizer(ClasspathNormalizer.class);
+            task.getOutputs().file(cdsArchive).withPropertyName("archive");
+            task.workingDir(cdsDir);
+            Provider<JavaLauncher> launcher = project.getExtensions().getByType(JavaToolchainService.class)
+                .launcherFor(project.getExtensions().getByType(JavaPluginExtension.class).getToolchain());
+            task.doFirst(t -> {
+                // relative paths, so the archive can be used from a copy of the directory
+                task.commandLine(launcher.get().getExecutablePath().getAsFile().getAbsolutePath(),
+                    "-XX:ArchiveClassesAtExit=" + CDS_ARCHIVE, "-Dspring.context.exit=onRefresh", "-jar", CDS_APP_JAR);
+            });
+            // the training run refreshes the context, so it needs the same env file and compose services as bootRun
+            configureApplicationEnvironment(task);
+        });
+        project.getTasks().named(SpringBootPlugin.BOOT_RUN_TASK_NAME, BootRun.class, bootRun -> {
+            bootRun.dependsOn(cdsArchiveTask);
+            bootRun.setClasspath(project.files(cdsAppJar));
+            bootRun.getJvmArgumentProviders().add(() -> List.of("-XX:SharedArchiveFile=" + cdsArchive.get().getAsFile().getAbsolutePath()));
+        });
+        TaskProvider<Sync> cdsDist = project.getTasks().register(CDS_DIST_TASK_NAME, Sync.class, task -> {
+            BootJar bootJar = (BootJar) project.getTasks().getByName(SpringBootPlugin.BOOT_JAR_TASK_NAME);
+            task.setDescription("Copies the application with its AppCDS archive next to the bootJar");
+            task.from(cdsDir);
+            task.dependsOn(cdsArchiveTask);
+            task.into(bootJar.getDestinationDirectory().dir("cds"));
+        });
+        project.getTasks().named(BasePlugin.ASSEMBLE_TASK_NAME, task -> task.dependsOn(cdsDist));
+    }
+
+    /**
+     * The productionRuntimeClasspath of the bootJar copies the parents of the runtimeClasspath when it is created, so the
+     * platforms are applied to it too.
+     */
+    @Override
+    protected void applyPlatforms(Configuration featurePlatforms) {
+        super.applyPlatforms(featurePlatforms);
+        project.getConfigurations().named(SpringBootPlugin.PRODUCTION_RUNTIME_CLASSPATH_CONFIGURATION_NAME)
+            .configure(configuration -> configuration.extendsFrom(featurePlatforms));
+    }
+
+    @Override
+    protected void configureFeatureTasks() {
+        configureAot();
+        configureLayers();
+    }
+
+    /**
+     * Configures the layers of the bootJar (setting 'featureLayersEnabled', disabled by default because it changes the
+     * layer layout of existing images).
+     * <p>
+     * See {@link FeatureLayers} for the layer order. The dependencies are assigned to the first matching layer.
+     */
+    private void configureLayers() {
+        if (!extension.getSettings().getFeatureLayersEnabled().getOrElse(Boolean.FALSE)) {
+            return;
+        }
+        final Map<String, List<String>> featureLayers = FeatureLayers.calculate(registry.getFeaturesEnabled());
+        final List<String> layerOrder = FeatureLayers.order(featureLayers.keySet());
+        info("Configuring bootJar layers: " + layerOrder);
+        project.getTasks().named(SpringBootPlugin.BOOT_JAR_TASK_NAME, BootJar.class, bootJar -> bootJar.layered(layered -> {
+            layered.application(application -> {
+                application.intoLayer(FeatureLayers.LOADER, spec -> spec.include("org/springframework/boot/loader/**"));
+                application.intoLayer(FeatureLayers.APPLICATION);
+            });
+            layered.dependencies(dependencies -> {
+                dependencies.intoLayer(FeatureLayers.SNAPSHOT_DEPENDENCIES, spec -> spec.include("*:*:*SNAPSHOT"));
+                featureLayers.forEach((layer, modules) -> dependencies.intoLayer(layer, spec -> spec.include(modules.toArray(String[]::new))));
+                dependencies.intoLayer(FeatureLayers.DEPENDENCIES);
+            });
+            layered.getLayerOrder().set(layerOrder);
+        }));
+    }
+
+    /**
+     * Configures Spring AOT processing (setting 'aotEnabled') and GraalVM native images (setting 'nativeImageEnabled').
+     */
+    private void configureAot() {
+        final boolean nativeImageEnabled = extension.getSettings().getNativeImageEnabled().getOrElse(Boolean.FALSE);
+        if (!nativeImageEnabled && !extension.getSettings().getAotEnabled().getOrElse(Boolean.FALSE)) {
+            return;
+        }
+        final List<String> incompatibleFeatures = registry.getFeaturesEnabled().stream()
+            .filter(feature -> Boolean.FALSE.equals(feature.aotCompatible())).map(Feature::key).sorted().toList();
+        if (!incompatibleFeatures.isEmpty()) {
+            final String message = "Features not compatible with Spring AOT / native images: " + String.join(", ", incompatibleFeatures);
+            if (nativeImageEnabled) {
+                throw new InvalidUserDataException(message);
+            }
+            project.getLogger().warn(message);
+        }
+        if (nativeImageEnabled) {
+            try {
+                project.getPluginManager().apply(NATIVE_PLUGIN_ID);
+            } catch (UnknownPluginException e) {
+                throw new InvalidUserDataException("The setting 'nativeImageEnabled' requires the GraalVM Native Build Tools plugin '"
+                    + NATIVE_PLUGIN_ID + "' in the build script classpath", e);
+            }
+            info("Native image support enabled");
+        }
+        project.getPluginManager().apply(AOT_PLUGIN_ID);
+        info("Spring AOT enabled");
+        // run the application with the AOT generated classes and resources
+        final SourceSet aot = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets().getByName(AOT_SOURCE_SET_NAME);
+        project.getTasks().named(SpringBootPlugin.BOOT_RUN_TASK_NAME, BootRun.class, bootRun -> {
+            bootRun.classpath(aot.getOutput());
+            bootRun.systemProperty("spring.aot.enabled", "true");
+        });
+    }
+
+    private FileCollection getApplicationClasspath() {
+        SourceSet main = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets()
+            .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+        return main.getRuntimeClasspath().plus(project.getConfigurations().getByName(SpringBootPlugin.DEVELOPMENT_ONLY_CONFIGURATION_NAME));
+    }
+
     /**
      * Method for processing the env file.
      *
-     * @param bootRun               task for running a Spring Boot application
+     * @param task                  task that runs the application
      * @param envFile               Properties file reference
      * @param showEnvVarsEnabled    Enable log of environment variables
      * @param calculatedSecretNames Set of secret key names to be obfuscated
      * @param logger                The current logger instance
      */
-    private static void processEnvFile(BootRun bootRun, File envFile, Boolean showEnvVarsEnabled, Set<String> calculatedSecretNames, Logger logger) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(envFile))) {
-
-            String line = reader.readLine();
-            while (line != null) {
-                if (!line.isEmpty() && !line.startsWith("#")) {
-                    int pos = line.indexOf("=");
-                    String key = line.substring(0, pos).trim();
-                    String value = line.substring(pos + 1).trim();
-                    if (System.getenv(key) == null) {
-                        if (showEnvVarsEnabled) {
-                            if (calculatedSecretNames.stream().anyMatch(key::contains)) {
-                                logger.lifecycle("Var " + key + "=***");
-                            } else {
-                                logger.lifecycle("Var " + key + "=" + value);
-                            }
-                        }
-                        bootRun.environment(key, value);
-                    }
-                }
-                // read next line
-                line = reader.readLine();
-            }
+    private static void processEnvFile(ProcessForkOptions task, File envFile, Boolean showEnvVarsEnabled, Set<String> calculatedSecretNames, Logger logger) {
+        // snapshot of the environment, variables already defined in the environment are not overridden
+        final Map<String, String> environment = System.getenv();
+        final DotEnvFile.Result result;
+        try {
+            result = DotEnvFile.load(envFile.toPath(), environment);
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Unable to read env file '" + envFile + "'", e);
+        }
+        result.invalidLines().forEach(line -> logger.warn("Ignoring invalid line in env file: " + line));
+        final Map<String, String> variables = new LinkedHashMap<>(result.values());
+        variables.keySet().removeAll(environment.keySet());
+        if (showEnvVarsEnabled && !variables.isEmpty()) {
+            final AhoCorasickMatcher secretMatcher = new AhoCorasickMatcher(calculatedSecretNames);
+            final StringBuilder log = new StringBuilder();
+            variables.forEach((key, value) -> log.append("Var ").append(key).append('=')
+                .append(secretMatcher.matches(key) ? "***" : value).append(System.lineSeparator()));
+            logger.lifecycle(log.toString().stripTrailing());
         }
+        task.environment(variables);
+    }
+
+    /**
+     * Calculate the JVM arguments of the runtime profile.
+     *
+     * @return the JVM arguments, empty if there is no runtime profile
+     */
+    private List<String> calculateRuntimeJvmArgs() {
+        final RuntimeHandler runtime = extension.getSettings().getRuntime();
+        return RuntimeProfile.calculateJvmArgs(runtime.getProfile().getOrNull(), runtime.getVirtualThreads().getOrElse(Boolean.FALSE),
+            runtime.getJvmArgs().getOrElse(List.of()));
+    }
+
+    /**
+     * Calculates the JVM arguments of the runtime settings for the test tasks.
+     *
+     * @return the JVM arguments, empty if there is no runtime profile nor virtual threads
+     */
+    private List<String> calculateTestJvmArgs() {
+        final RuntimeHandler runtime = extension.getSettings().getRuntime();
+        return RuntimeProfile.calculateTestJvmArgs(runtime.getProfile().getOrNull(), runtime.getVirtualThreads().getOrElse(Boolean.FALSE));
     }
 
     /**
@@ -0,0 +1,250 @@
+package io.github.arielcarrera.build.features.boot.compose;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import groovy.json.JsonSlurper;
+
+/**
+ * Client of the compose command line.
+ * <p>
+ * The commands are executed directly (without a shell) and their output is parsed in Java. The compose command depends on the
+ * container runtime (see {@link ContainerRuntime}).
+ *
+ * @author Ariel Carrera
+ */
+public class ComposeClient {
+    public static final String DEFAULT_COMPOSE_FILE = "compose.yaml";
+    public static final String DEFAULT_PROJECT_NAME = "app-config";
+    public static final String DEFAULT_SERVICE_NAME = "app-config";
+    private static final Logger LOGGER = Logging.getLogger(ComposeClient.class);
+    private static final String SERVICE_LABEL = "com.docker.compose.service";
+    private static final Pattern STATUS_HEALTH = Pattern.compile("\\((?:health: )?(healthy|unhealthy|starting)\\)");
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+
+    private final List<String> command;
+    private final File workingDir;
+    private final String composeFile;
+    private final String projectName;
+
+    /**
+     * Creates a compose client.
+     *
+     * @param command     the compose command (e.g. ['docker', 'compose'])
+     * @param workingDir  the directory where the commands are executed
+     * @param composeFile the compose file
+     * @param projectName the compose project name
+     */
+    public ComposeClient(List<String> command, File workingDir, String composeFile, String projectName) {
+        this.command = List.copyOf(command);
+        this.workingDir = workingDir;
+        this.composeFile = composeFile;
+        this.projectName = projectName;
+    }
+
+    /**
+     * Starts the services in detached mode.
+     *
+     * @param services the service names
+     */
+    public void up(Collection<String> services) {
+        final List<String> args = new ArrayList<>(List.of("-f", composeFile, "-p", projectName, "up", "-d"));
+        args.addAll(services);
+        LOGGER.info(execute(args));
+    }
+
+    /**
+     * Gets the state of the service containers of the project (running and stopped).
+     *
+     * @return the state of the services
+     */
+    public List<ComposeServiceState> ps() {
+        return parseServices(execute(List.of("-p", projectName, "ps", "--all", "--format", "json")));
+    }
+
+    /**
+     * Gets the state of a service.
+     *
+     * @param service the service name
+     * @return the state of the service, or empty if the service has no container
+     */
+    public Optional<ComposeServiceState> state(String service) {
+        return ps().stream().filter(state -> service.equals(state.service())).findFirst();
+    }
+
+    /**
+     * Waits until the service is healthy, probing its state with exponential backoff.
+     *
+     * @param service the service name
+     * @param timeout the maximum time to wait
+     * @return the state of the healthy service
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws GradleException      if the service exits or it is not healthy before the timeout
+     */
+    public ComposeServiceState awaitHealthy(String service, Duration timeout) throws InterruptedException {
+        return await(service, timeout, "healthy", state -> state.isPresent() && state.get().isHealthy(), state -> {
+            if (state.isPresent() && state.get().isExited()) {
+                throw new GradleException("Service '" + service + "' exited before being healthy");
+            }
+        }).orElseThrow();
+    }
+
+    /**
+     * Stops the services.
+     *
+     * @param services the service names
+     */
+    public void stop(Collection<String> services) {
+        final List<String> args = new ArrayList<>(List.of("-f", composeFile, "-p", projectName, "stop"));
+        args.addAll(services);
+        LOGGER.info(execute(args));
+    }
+
+    /**
+     * Stops the services without waiting: the command is started with its output discarded and it keeps running after the
+     * build has finished.
+     *
+     * @param services the service names
+     */
+    public void stopDetached(Collection<String> services) {
+        final List<String> commandLine = new ArrayList<>(command);
+        commandLine.addAll(List.of("-f", composeFile, "-p", projectName, "stop"));
+        commandLine.addAll(services);
+        try {
+            new ProcessBuilder(commandLine).directory(workingDir).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        } catch (IOException e) {
+            throw new GradleException("Unable to execute '" + String.join(" ", commandLine) + "'", e);
+        }
+    }
+
+    /**
+     * Waits until the service container is stopped (or removed), probing its state with exponential backoff.
+     *
+     * @param service the service name
+     * @param timeout the maximum time to wait
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws GradleException      if the service is not stopped before the timeout
+     */
+    public void awaitExited(String service, Duration timeout) throws InterruptedException {
+        await(service, timeout, "stopped", state -> state.isEmpty() || state.get().isExited(), state -> {
+        });
+    }
+
+    private Optional<ComposeServiceState> await(String service, Duration timeout, String condition,
+                                                Predicate<Optional<ComposeServiceState>> reached,
+                                                Consumer<Optional<ComposeServiceState>> check) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (true) {
+            final Optional<ComposeServiceState> state = state(service);
+            if (reached.test(state)) {
+                return state;
+            }
+            check.accept(state);
+            final long remaining = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+            if (remaining <= 0) {
+                throw new GradleException("Timeout waiting for service '" + service + "' to be " + condition + " (" + timeout.toSeconds() + "s)");
+            }
+            LOGGER.debug("Service '{}' not {}: {}", service, condition, state.orElse(null));
+            Thread.sleep(Math.min(backoff, remaining));
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    /**
+     * Parses the output of 'compose ps --format json'. Older compose versions print a JSON array and newer versions print one
+     * JSON object per line.
+     *
+     * @param json the command output
+     * @return the state of the services
+     */
+    public static List<ComposeServiceState> parseServices(String json) {
+        final List<ComposeServiceState> services = new ArrayList<>();
+        final String content = json.trim();
+        if (content.isEmpty()) {
+            return services;
+        }
+        final JsonSlurper slurper = new JsonSlurper();
+        if (content.startsWith("[")) {
+            ((List<?>) slurper.parseText(content)).forEach(item -> services.add(toState((Map<?, ?>) item)));
+        } else {
+            content.lines().map(String::trim).filter(line -> line.startsWith("{"))
+                .forEach(line -> services.add(toState((Map<?, ?>) slurper.parseText(line))));
+        }
+        return services;
+    }
+
+    private static ComposeServiceState toState(Map<?, ?> item) {
+        // podman reports the container names as a list, the service as a label and the health inside the status
+        String name = value(item, "Name");
+        if (name.isEmpty() && item.get("Names") instanceof List<?> names && !names.isEmpty()) {
+            name = names.get(0).toString();
+        }
+        String service = value(item, "Service");
+        if (service.isEmpty() && item.get("Labels") instanceof Map<?, ?> labels) {
+            service = value(labels, SERVICE_LABEL);
+        }
+        String health = value(item, "Health");
+        if (health.isEmpty()) {
+            final Matcher status = STATUS_HEALTH.matcher(value(item, "Status"));
+            health = status.find() ? status.group(1) : "";
+        }
+        return new ComposeServiceState(name, service, value(item, "State").toLowerCase(Locale.ROOT), health);
+    }
+
+    private static String value(Map<?, ?> item, String key) {
+        final Object value = item.get(key);
+        return value == null ? "" : value.toString();
+    }
+
+    private static String read(InputStream is) {
+        try (is) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String execute(List<String> args) {
+        final List<String> commandLine = new ArrayList<>(command);
+        commandLine.addAll(args);
+        try {
+            final Process process = new ProcessBuilder(commandLine).directory(workingDir).start();
+            // stderr is read concurrently so the process never blocks on a full pipe, warnings must not break the parsing
+            final CompletableFuture<String> errors = CompletableFuture.supplyAsync(() -> read(process.getErrorStream()));
+            final String output = read(process.getInputStream());
+            final int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new GradleException("Command '" + String.join(" ", commandLine) + "' failed with exit code " + exitCode + ":\n"
+                    + output + errors.join());
+            }
+            LOGGER.debug(errors.join());
+            return output;
+        } catch (IOException e) {
+            throw new GradleException("Unable to execute '" + String.join(" ", commandLine) + "'", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while executing '" + String.join(" ", commandLine) + "'", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.arielcarrera.build.features.boot.compose;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Compose service started before running the application.
+ *
+ * @param name           the service name
+ * @param dependsOn      the services that must be healthy before starting this service
+ * @param timeoutSeconds the maximum time to wait for the service to be healthy
+ * @author Ariel Carrera
+ */
+public record ComposeService(String name, List<String> dependsOn, int timeoutSeconds) implements Serializable {
+
+    public ComposeService {
+        dependsOn = List.copyOf(dependsOn);
+    }
+}
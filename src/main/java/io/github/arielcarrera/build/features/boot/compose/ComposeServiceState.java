@@ -0,0 +1,34 @@
+package io.github.arielcarrera.build.features.boot.compose;
+
+/**
+ * State of a compose service container as reported by 'compose ps --format json'.
+ *
+ * @param name    the container name
+ * @param service the service name
+ * @param state   the container state (e.g. running, exited)
+ * @param health  the health status (e.g. starting, healthy, unhealthy), empty if the service has no health check
+ * @author Ariel Carrera
+ */
+public record ComposeServiceState(String name, String service, String state, String health) {
+
+    /**
+     * Checks if the service is ready. A service without health check is ready when it is running.
+     *
+     * @return true if the service is healthy
+     */
+    public boolean isHealthy() {
+        if (health == null || health.isEmpty()) {
+            return "running".equalsIgnoreCase(state);
+        }
+        return "healthy".equalsIgnoreCase(health);
+    }
+
+    /**
+     * Checks if the service container is stopped.
+     *
+     * @return true if the service is exited or dead
+     */
+    public boolean isExited() {
+        return "exited".equalsIgnoreCase(state) || "dead".equalsIgnoreCase(state);
+    }
+}
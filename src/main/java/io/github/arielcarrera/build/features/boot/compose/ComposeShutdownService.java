@@ -0,0 +1,58 @@
+package io.github.arielcarrera.build.features.boot.compose;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Build service that stops compose services in background.
+ * <p>
+ * The shutdowns run in a background thread, so the tasks do not block the build. They only start the compose stop command
+ * in detached mode (see {@link ComposeClient#stopDetached(java.util.Collection)}), so awaiting them when the service is
+ * closed at the end of the build is immediate, and the containers keep stopping after the build has returned.
+ *
+ * @author Ariel Carrera
+ */
+public abstract class ComposeShutdownService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+    public static final String NAME = "composeShutdown";
+    private static final Logger LOGGER = Logging.getLogger(ComposeShutdownService.class);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Future<?>> pending = new CopyOnWriteArrayList<>();
+
+    /**
+     * Submits a shutdown.
+     *
+     * @param shutdown the shutdown action
+     */
+    public void submit(Runnable shutdown) {
+        pending.add(executor.submit(shutdown));
+    }
+
+    @Override
+    public void close() {
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                LOGGER.error("Error stopping docker compose services: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.arielcarrera.build.features.boot.compose;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.api.InvalidUserDataException;
+
+/**
+ * Calculates the startup order of compose services based on their dependencies.
+ *
+ * @author Ariel Carrera
+ */
+public final class ComposeStartupOrder {
+
+    private ComposeStartupOrder() {
+    }
+
+    /**
+     * Sorts the services so every service comes after its dependencies, keeping the declaration order otherwise.
+     *
+     * @param services the services
+     * @return the sorted services
+     * @throws InvalidUserDataException if a dependency is not declared or there is a dependency cycle
+     */
+    public static List<ComposeService> sort(Collection<ComposeService> services) {
+        final Map<String, ComposeService> byName = new LinkedHashMap<>();
+        services.forEach(service -> byName.put(service.name(), service));
+        final List<ComposeService> sorted = new ArrayList<>(byName.size());
+        final Set<String> visited = new HashSet<>();
+        for (ComposeService service : byName.values()) {
+            visit(service, byName, visited, new ArrayList<>(), sorted);
+        }
+        return sorted;
+    }
+
+    private static void visit(ComposeService service, Map<String, ComposeService> byName, Set<String> visited,
+                              List<String> path, List<ComposeService> sorted) {
+        if (visited.contains(service.name())) {
+            return;
+        }
+        if (path.contains(service.name())) {
+            path.add(service.name());
+            throw new InvalidUserDataException("Dependency cycle between docker compose services: " + String.join(" -> ", path));
+        }
+        path.add(service.name());
+        for (String dependency : service.dependsOn()) {
+            final ComposeService dependencyService = byName.get(dependency);
+            if (dependencyService == null) {
+                throw new InvalidUserDataException("Docker compose service '" + service.name() + "' depends on undeclared service '"
+                    + dependency + "'");
+            }
+            visit(dependencyService, byName, visited, path, sorted);
+        }
+        path.remove(path.size() - 1);
+        visited.add(service.name());
+        sorted.add(service);
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.arielcarrera.build.features.boot.compose;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.gradle.api.InvalidUserDataException;
+
+/**
+ * Container runtimes supported to run the compose services.
+ *
+ * @author Ariel Carrera
+ */
+public enum ContainerRuntime {
+    DOCKER("docker"),
+    PODMAN("podman"),
+    NERDCTL("nerdctl");
+
+    private final String executable;
+
+    ContainerRuntime(String executable) {
+        this.executable = executable;
+    }
+
+    public String getExecutable() {
+        return executable;
+    }
+
+    /**
+     * Gets the compose command of the runtime.
+     *
+     * @param executable alternative path of the runtime executable, or null to use the default one
+     * @return the command (e.g. ['docker', 'compose'])
+     */
+    public List<String> composeCommand(String executable) {
+        return List.of(executable == null || executable.isBlank() ? this.executable : executable, "compose");
+    }
+
+    /**
+     * Gets the runtime by name.
+     *
+     * @param name the runtime name (docker, podman or nerdctl)
+     * @return the runtime
+     * @throws InvalidUserDataException if the runtime is not supported
+     */
+    public static ContainerRuntime of(String name) {
+        return Arrays.stream(values()).filter(runtime -> runtime.executable.equals(name.toLowerCase(Locale.ROOT))).findFirst()
+            .orElseThrow(() -> new InvalidUserDataException("Unsupported container runtime '" + name + "'. Supported values: "
+                + Arrays.stream(values()).map(ContainerRuntime::getExecutable).toList()));
+    }
+}
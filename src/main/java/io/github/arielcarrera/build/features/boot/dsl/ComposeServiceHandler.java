@@ -0,0 +1,13 @@
+package io.github.arielcarrera.build.features.boot.dsl;
+
+import org.gradle.api.Named;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+public interface ComposeServiceHandler extends Named {
+
+    ListProperty<String> getDependsOn();
+
+    Property<Integer> getTimeout();
+
+}
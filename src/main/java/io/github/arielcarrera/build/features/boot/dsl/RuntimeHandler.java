@@ -0,0 +1,16 @@
+package io.github.arielcarrera.build.features.boot.dsl;
+
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+public interface RuntimeHandler {
+
+    Property<String> getProfile();
+
+    Property<Boolean> getVirtualThreads();
+
+    Property<Boolean> getFastStartup();
+
+    ListProperty<String> getJvmArgs();
+
+}
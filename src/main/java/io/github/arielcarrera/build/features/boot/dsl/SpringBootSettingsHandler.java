@@ -1,7 +1,10 @@
 package io.github.arielcarrera.build.features.boot.dsl;
 
+import org.gradle.api.Action;
+import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Nested;
 import io.github.arielcarrera.build.features.dsl.SettingsHandler;
 
 public interface SpringBootSettingsHandler extends SettingsHandler {
@@ -14,10 +17,39 @@ public interface SpringBootSettingsHandler extends SettingsHandler {
 
     Property<Boolean> getDockerComposeEnabled();
 
+    Property<String> getContainerRuntime();
+
+    Property<String> getContainerRuntimeExecutable();
+
     Property<String> getDockerComposeFile();
 
     Property<String> getDockerComposeName();
 
     Property<String> getDockerComposeProject();
 
+    Property<Integer> getDockerComposeTimeout();
+
+    Property<Boolean> getDockerComposeReuseEnabled();
+
+    Property<Boolean> getDockerComposeStopAsync();
+
+    Property<Boolean> getDockerComposeStopOnExit();
+
+    NamedDomainObjectContainer<ComposeServiceHandler> getDockerComposeServices();
+
+    Property<Boolean> getCdsEnabled();
+
+    Property<Boolean> getAotEnabled();
+
+    Property<Boolean> getNativeImageEnabled();
+
+    Property<Boolean> getFeatureLayersEnabled();
+
+    @Nested
+    RuntimeHandler getRuntime();
+
+    default void runtime(Action<? super RuntimeHandler> action) {
+        action.execute(getRuntime());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+package io.github.arielcarrera.build.features.boot.env;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.api.InvalidUserDataException;
+
+/**
+ * Parser of .env files.
+ * <p>
+ * Supports comments, the 'export' prefix, single quoted (literal) and double quoted values (escape sequences and multiline
+ * values), and interpolation of '${VAR}', '${VAR:-default}' and '$VAR' in double quoted and unquoted values. As the
+ * variables already defined in the environment are not overridden, the interpolation also prefers the environment value.
+ *
+ * @author Ariel Carrera
+ */
+public final class DotEnvFile {
+
+    private enum Quoting {
+        NONE, SINGLE, DOUBLE
+    }
+
+    private record Entry(String key, String rawValue, Quoting quoting) {
+    }
+
+    private record Parsed(List<Entry> entries, List<String> invalidLines) {
+    }
+
+    /**
+     * Result of loading a .env file.
+     *
+     * @param values       the variables in order of definition, with the values already interpolated
+     * @param invalidLines the lines that could not be parsed (e.g. missing '=')
+     */
+    public record Result(Map<String, String> values, List<String> invalidLines) {
+    }
+
+    private DotEnvFile() {
+    }
+
+    /**
+     * Loads a .env file.
+     *
+     * @param file        the .env file
+     * @param environment snapshot of the environment used for the interpolation of variables not defined in the file
+     * @return the variables of the file
+     * @throws IOException              if the file cannot be read
+     * @throws InvalidUserDataException if a quoted value is not terminated
+     */
+    public static Result load(Path file, Map<String, String> environment) throws IOException {
+        return parse(Files.readString(file, StandardCharsets.UTF_8), environment);
+    }
+
+    /**
+     * Parses the content of a .env file.
+     *
+     * @param content     the content
+     * @param environment snapshot of the environment used for the interpolation
+     * @return the variables of the content
+     * @throws InvalidUserDataException if a quoted value is not terminated
+     */
+    public static Result parse(String content, Map<String, String> environment) {
+        return resolve(parse(content), environment);
+    }
+
+    private static Result resolve(Parsed parsed, Map<String, String> environment) {
+        final Map<String, String> values = new LinkedHashMap<>();
+        for (Entry entry : parsed.entries()) {
+            final String value = entry.quoting() == Quoting.SINGLE ? entry.rawValue() :
+                interpolate(entry.rawValue(), entry.quoting() == Quoting.DOUBLE, values, environment);
+            values.put(entry.key(), value);
+        }
+        return new Result(values, parsed.invalidLines());
+    }
+
+    private static Parsed parse(String content) {
+        final List<Entry> entries = new ArrayList<>();
+        final List<String> invalidLines = new ArrayList<>();
+        final int length = content.length();
+        int pos = 0;
+        while (pos < length) {
+            // skip blank lines and indentation
+            while (pos < length && Character.isWhitespace(content.charAt(pos))) {
+                pos++;
+            }
+            if (pos >= length) {
+                break;
+            }
+            final int lineStart = pos;
+            if (content.charAt(pos) == '#') {
+                pos = endOfLine(content, pos);
+                continue;
+            }
+            if (content.startsWith("export", pos) && pos + 6 < length && (content.charAt(pos + 6) == ' ' || content.charAt(pos + 6) == '\t')) {
+                pos = skipSpaces(content, pos + 6);
+            }
+            final int keyStart = pos;
+            while (pos < length && isKeyChar(content.charAt(pos))) {
+                pos++;
+            }
+            final String key = content.substring(keyStart, pos);
+            pos = skipSpaces(content, pos);
+            if (key.isEmpty() || pos >= length || content.charAt(pos) != '=') {
+                final int end = endOfLine(content, lineStart);
+                invalidLines.add(content.substring(lineStart, end).trim());
+                pos = end;
+                continue;
+            }
+            pos = skipSpaces(content, pos + 1);
+            final char quote = pos < length ? content.charAt(pos) : '\n';
+            if (quote == '"' || quote == '\'') {
+                final int valueStart = pos + 1;
+                int valueEnd = valueStart;
+                while (valueEnd < length && content.charAt(valueEnd) != quote) {
+                    // escaped characters are only allowed inside double quotes
+                    valueEnd += (quote == '"' && content.charAt(valueEnd) == '\\') ? 2 : 1;
+                }
+                if (valueEnd >= length) {
+                    throw new InvalidUserDataException("Unterminated %s quoted value of '%s' at line %d"
+                        .formatted(quote == '"' ? "double" : "single", key, lineNumber(content, lineStart)));
+                }
+                entries.add(new Entry(key, content.substring(valueStart, valueEnd), quote == '"' ? Quoting.DOUBLE : Quoting.SINGLE));
+                // ignore anything after the closing quote (comments)
+                pos = endOfLine(content, Math.min(valueEnd + 1, length));
+            } else {
+                final int end = endOfLine(content, pos);
+                String value = content.substring(pos, end);
+                final int comment = inlineComment(value);
+                if (comment >= 0) {
+                    value = value.substring(0, comment);
+                }
+                entries.add(new Entry(key, value.trim(), Quoting.NONE));
+                pos = end;
+            }
+        }
+        return new Parsed(List.copyOf(entries), List.copyOf(invalidLines));
+    }
+
+    private static String interpolate(String raw, boolean escapes, Map<String, String> values, Map<String, String> environment) {
+        final StringBuilder builder = new StringBuilder(raw.length());
+        int pos = 0;
+        while (pos < raw.length()) {
+            final char c = raw.charAt(pos);
+            if (escapes && c == '\\' && pos + 1 < raw.length()) {
+                final char next = raw.charAt(pos + 1);
+                switch (next) {
+                    case 'n' -> builder.append('\n');
+                    case 'r' -> builder.append('\r');
+                    case 't' -> builder.append('\t');
+                    default -> builder.append(next);
+                }
+                pos += 2;
+            } else if (c == '$' && pos + 1 < raw.length() && raw.charAt(pos + 1) == '{') {
+                final int end = raw.indexOf('}', pos + 2);
+                if (end < 0) {
+                    builder.append(raw, pos, raw.length());
+                    break;
+                }
+                final String expression = raw.substring(pos + 2, end);
+                final int defaultSeparator = expression.indexOf(":-");
+                final String name = defaultSeparator >= 0 ? expression.substring(0, defaultSeparator) : expression;
+                final String value = lookup(name, values, environment);
+                builder.append(value != null && !value.isEmpty() ? value :
+                    defaultSeparator >= 0 ? expression.substring(defaultSeparator + 2) : "");
+                pos = end + 1;
+            } else if (c == '$' && pos + 1 < raw.length() && isKeyStart(raw.charAt(pos + 1))) {
+                int end = pos + 1;
+                while (end < raw.length() && isKeyChar(raw.charAt(end)) && raw.charAt(end) != '.' && raw.charAt(end) != '-') {
+                    end++;
+                }
+                final String value = lookup(raw.substring(pos + 1, end), values, environment);
+                builder.append(value != null ? value : "");
+                pos = end;
+            } else {
+                builder.append(c);
+                pos++;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String lookup(String name, Map<String, String> values, Map<String, String> environment) {
+        // same precedence as the applied values: the environment is not overridden by the file
+        final String value = environment.get(name);
+        return value != null ? value : values.get(name);
+    }
+
+    private static int inlineComment(String value) {
+        for (int i = 1; i < value.length(); i++) {
+            if (value.charAt(i) == '#' && Character.isWhitespace(value.charAt(i - 1))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isKeyStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isKeyChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-';
+    }
+
+    private static int skipSpaces(String content, int pos) {
+        while (pos < content.length() && (content.charAt(pos) == ' ' || content.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int endOfLine(String content, int pos) {
+        final int end = content.indexOf('\n', pos);
+        return end < 0 ? content.length() : end;
+    }
+
+    private static int lineNumber(String content, int pos) {
+        return (int) content.substring(0, pos).chars().filter(c -> c == '\n').count() + 1;
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.arielcarrera.build.features.boot.layers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.arielcarrera.build.features.dependencies.Feature;
+
+/**
+ * Layers of the bootJar with one layer per enabled feature.
+ * <p>
+ * The layers are ordered by change frequency: managed dependencies, loader, one layer per enabled feature (its direct
+ * dependencies), snapshots and application classes.
+ *
+ * @author Ariel Carrera
+ */
+public final class FeatureLayers {
+    public static final String DEPENDENCIES = "dependencies";
+    public static final String LOADER = "spring-boot-loader";
+    public static final String FEATURE_PREFIX = "feature-";
+    public static final String SNAPSHOT_DEPENDENCIES = "snapshot-dependencies";
+    public static final String APPLICATION = "application";
+    private static final String TEST_CONFIGURATION_PREFIX = "test";
+
+    private FeatureLayers() {
+    }
+
+    /**
+     * Calculates the feature layers, features without runtime dependencies have no layer.
+     *
+     * @param enabledFeatures the enabled features
+     * @return the module patterns ('group:name:*') by layer name, sorted by feature key
+     */
+    public static Map<String, List<String>> calculate(Collection<Feature> enabledFeatures) {
+        final Map<String, List<String>> featureLayers = new LinkedHashMap<>();
+        enabledFeatures.stream().sorted(Comparator.comparing(Feature::key)).forEach(feature -> {
+            final List<String> modules = feature.dependencies().stream()
+                .filter(dependency -> !dependency.configuration().startsWith(TEST_CONFIGURATION_PREFIX))
+                .map(dependency -> dependency.group() + ":" + dependency.name() + ":*").distinct().sorted().toList();
+            if (!modules.isEmpty()) {
+                featureLayers.put(FEATURE_PREFIX + feature.key(), modules);
+            }
+        });
+        return featureLayers;
+    }
+
+    /**
+     * Calculates the layer order.
+     *
+     * @param featureLayers the feature layer names
+     * @return the layer names, from the least to the most frequently changed
+     */
+    public static List<String> order(Collection<String> featureLayers) {
+        final List<String> layerOrder = new ArrayList<>(List.of(DEPENDENCIES, LOADER));
+        layerOrder.addAll(featureLayers);
+        layerOrder.addAll(List.of(SNAPSHOT_DEPENDENCIES, APPLICATION));
+        return layerOrder;
+    }
+}
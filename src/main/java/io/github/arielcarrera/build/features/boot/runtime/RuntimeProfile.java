@@ -0,0 +1,120 @@
+package io.github.arielcarrera.build.features.boot.runtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.gradle.api.InvalidUserDataException;
+
+/**
+ * JVM runtime tuning profiles.
+ * <p>
+ * Every profile sizes the heap as a percentage of the available memory (the memory limit of the container, as the JVM detects
+ * it by default) and makes the JVM exit on out of memory errors so the orchestrator can restart it. The test JVMs only get
+ * the collector (see {@link #calculateTestJvmArgs(String, boolean)}).
+ *
+ * @author Ariel Carrera
+ */
+public enum RuntimeProfile {
+    /**
+     * Concurrent collector with short pauses.
+     */
+    LOW_LATENCY("low-latency", "-XX:+UseZGC", List.of("-XX:MaxRAMPercentage=75.0")),
+    /**
+     * Parallel collector, maximizes the application throughput.
+     */
+    THROUGHPUT("throughput", "-XX:+UseParallelGC", List.of("-XX:MaxRAMPercentage=75.0")),
+    /**
+     * Serial collector, smaller heap and thread stacks for small containers.
+     */
+    SMALL_FOOTPRINT("small-footprint", "-XX:+UseSerialGC", List.of("-XX:MaxRAMPercentage=50.0", "-Xss512k",
+        "-XX:ReservedCodeCacheSize=64m"));
+
+    private static final String EXIT_ON_OUT_OF_MEMORY = "-XX:+ExitOnOutOfMemoryError";
+    private static final String VIRTUAL_THREADS_PROPERTY = "-Dspring.threads.virtual.enabled=true";
+
+    private final String profileName;
+    private final String collector;
+    private final List<String> sizingArgs;
+
+    RuntimeProfile(String profileName, String collector, List<String> sizingArgs) {
+        this.profileName = profileName;
+        this.collector = collector;
+        this.sizingArgs = sizingArgs;
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    /**
+     * Gets the JVM arguments of the profile.
+     *
+     * @return the JVM arguments
+     */
+    public List<String> getJvmArgs() {
+        final List<String> args = new ArrayList<>(List.of(collector));
+        args.addAll(sizingArgs);
+        args.add(EXIT_ON_OUT_OF_MEMORY);
+        return args;
+    }
+
+    /**
+     * Gets the garbage collector argument of the profile.
+     *
+     * @return the JVM argument that selects the collector
+     */
+    public String getCollector() {
+        return collector;
+    }
+
+    /**
+     * Calculates the JVM arguments of the runtime settings.
+     *
+     * @param profileName    the profile name, or null for no profile
+     * @param virtualThreads enables the virtual threads of Spring Boot
+     * @param additionalArgs additional JVM arguments
+     * @return the JVM arguments
+     */
+    public static List<String> calculateJvmArgs(String profileName, boolean virtualThreads, Collection<String> additionalArgs) {
+        final List<String> args = new ArrayList<>(profileName == null ? List.of() : of(profileName).getJvmArgs());
+        if (virtualThreads) {
+            args.add(VIRTUAL_THREADS_PROPERTY);
+        }
+        args.addAll(additionalArgs);
+        return args;
+    }
+
+    /**
+     * Calculates the JVM arguments of the test tasks: the collector of the profile and the virtual threads. The heap sizing
+     * and the exit on out of memory errors are left to the test settings.
+     *
+     * @param profileName    the profile name, or null for no profile
+     * @param virtualThreads enables the virtual threads of Spring Boot
+     * @return the JVM arguments
+     */
+    public static List<String> calculateTestJvmArgs(String profileName, boolean virtualThreads) {
+        final List<String> args = new ArrayList<>();
+        if (profileName != null) {
+            args.add(of(profileName).getCollector());
+        }
+        if (virtualThreads) {
+            args.add(VIRTUAL_THREADS_PROPERTY);
+        }
+        return args;
+    }
+
+    /**
+     * Gets the profile by name.
+     *
+     * @param name the profile name (low-latency, throughput or small-footprint)
+     * @return the profile
+     * @throws InvalidUserDataException if the profile does not exist
+     */
+    public static RuntimeProfile of(String name) {
+        return Arrays.stream(values()).filter(profile -> profile.profileName.equals(name)).findFirst()
+            .orElseThrow(() -> new InvalidUserDataException("Unknown runtime profile '" + name + "'. Supported values: "
+                + Arrays.stream(values()).map(RuntimeProfile::getProfileName).toList()));
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.arielcarrera.build.features.boot.tasks;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Optional;
+import io.github.arielcarrera.build.features.boot.compose.ComposeClient;
+import io.github.arielcarrera.build.features.boot.compose.ContainerRuntime;
+
+/**
+ * Base class of the tasks that manage the docker compose services.
+ *
+ * @author Ariel Carrera
+ */
+abstract public class BaseComposeTask extends DefaultTask {
+    public static final int DEFAULT_TIMEOUT_SECONDS = 30;
+
+    @Optional
+    @Input
+    abstract public Property<Integer> getDockerComposeTimeout();
+
+    @Optional
+    @Input
+    abstract public Property<String> getDockerComposeFile();
+
+    @Optional
+    @Input
+    abstract public Property<String> getDockerComposeName();
+
+    @Optional
+    @Input
+    abstract public Property<String> getDockerComposeProject();
+
+    @Optional
+    @Input
+    abstract public Property<String> getContainerRuntime();
+
+    @Optional
+    @Input
+    abstract public Property<String> getContainerRuntimeExecutable();
+
+    protected ComposeClient createClient() {
+        final ContainerRuntime runtime = ContainerRuntime.of(getContainerRuntime().getOrElse(ContainerRuntime.DOCKER.getExecutable()));
+        return new ComposeClient(runtime.composeCommand(getContainerRuntimeExecutable().getOrNull()), getProject().getProjectDir(),
+            getDockerComposeFile().getOrElse(ComposeClient.DEFAULT_COMPOSE_FILE),
+            getDockerComposeProject().getOrElse(ComposeClient.DEFAULT_PROJECT_NAME));
+    }
+}
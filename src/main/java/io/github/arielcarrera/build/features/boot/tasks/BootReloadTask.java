@@ -0,0 +1,38 @@
+package io.github.arielcarrera.build.features.boot.tasks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Task that triggers the restart of the application started with bootRunFast.
+ * <p>
+ * The task depends on the compilation of the application and then touches the devtools trigger file, so the application is
+ * restarted only once, after all the classes are compiled.
+ *
+ * @author Ariel Carrera
+ */
+abstract public class BootReloadTask extends DefaultTask {
+    public static final String TASK = "bootReload";
+
+    @Internal
+    abstract public RegularFileProperty getTriggerFile();
+
+    public BootReloadTask() {
+        setDescription("This task compiles the application and restarts the application started with bootRunFast");
+    }
+
+    @TaskAction
+    public void reload() throws IOException {
+        final Path triggerFile = getTriggerFile().get().getAsFile().toPath();
+        Files.createDirectories(triggerFile.getParent());
+        Files.writeString(triggerFile, Instant.now().toString());
+        getLogger().lifecycle("Restart triggered");
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.arielcarrera.build.features.boot.tasks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Task that exports the JVM arguments of the runtime profile as JAVA_TOOL_OPTIONS (e.g. for container images).
+ *
+ * @author Ariel Carrera
+ */
+abstract public class ExportJavaToolOptionsTask extends DefaultTask {
+    public static final String TASK = "exportJavaToolOptions";
+
+    @Input
+    abstract public ListProperty<String> getJvmArgs();
+
+    @OutputFile
+    abstract public RegularFileProperty getOutputFile();
+
+    public ExportJavaToolOptionsTask() {
+        setDescription("This task exports the JVM arguments of the runtime profile as JAVA_TOOL_OPTIONS");
+    }
+
+    @TaskAction
+    public void export() throws IOException {
+        final Path outputFile = getOutputFile().get().getAsFile().toPath();
+        Files.createDirectories(outputFile.getParent());
+        Files.writeString(outputFile, "JAVA_TOOL_OPTIONS=\"" + String.join(" ", getJvmArgs().get()) + "\"" + System.lineSeparator());
+        getLogger().lifecycle("JAVA_TOOL_OPTIONS exported to " + outputFile);
+    }
+}
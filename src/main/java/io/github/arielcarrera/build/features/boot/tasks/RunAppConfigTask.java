@@ -1,74 +1,169 @@
 package io.github.arielcarrera.build.features.boot.tasks;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
-import io.github.arielcarrera.build.features.utils.OSPlatform;
+import io.github.arielcarrera.build.features.boot.compose.ComposeClient;
+import io.github.arielcarrera.build.features.boot.compose.ComposeService;
+import io.github.arielcarrera.build.features.boot.compose.ComposeServiceState;
+import io.github.arielcarrera.build.features.boot.compose.ComposeStartupOrder;
 
-abstract public class RunAppConfigTask extends DefaultTask {
+abstract public class RunAppConfigTask extends BaseComposeTask {
     public static final String RUN_APP_CONFIG_TASK_NAME = "runAppConfig";
+    private static final String FINGERPRINT_PREFIX = "#fingerprint=";
 
-    @Optional
     @Input
-    abstract public Property<String> getDockerComposeFile();
+    abstract public ListProperty<ComposeService> getDockerComposeServices();
 
     @Optional
     @Input
-    abstract public Property<String> getDockerComposeName();
+    abstract public Property<Boolean> getDockerComposeReuseEnabled();
 
-    @Optional
-    @Input
-    abstract public Property<String> getDockerComposeProject();
+    /**
+     * Files read by compose (compose file and env file), a change in them recreates the services.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    abstract public ConfigurableFileCollection getDockerComposeFiles();
+
+    /**
+     * State of the started services and fingerprint of the compose files and services, used to reuse the services on later
+     * executions. It is not a task output: the task always runs and checks the health of the services.
+     */
+    @Internal
+    abstract public RegularFileProperty getStateFile();
 
     public RunAppConfigTask() {
         setDescription("This task starts the app-config");
     }
 
     @TaskAction
-    public void resolveLatestVersion() {
-        getLogger().lifecycle("Iniciando app-config...");
-        getProject().exec(execSpec -> {
-            String commandLine = "docker compose -f " + getDockerComposeFile().getOrElse("compose.yaml") + " -p " +
-                getDockerComposeProject().getOrElse("app-config") + " up -d app-config";
-            if (OSPlatform.isWindows()) {
-                execSpec.commandLine("cmd", "/c", commandLine);
-            } else {
-                execSpec.commandLine("sh", "-c", commandLine);
-            }
-        });
-        int elapsed = 0;
-        String result = "";
-        while (!result.contains("healthy") && elapsed < 30) {
-            getLogger().lifecycle("Esperando inicio de app-config...");
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                // InterruptedException during sleep
-            }
-            elapsed++;
-            try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-                getProject().exec(execSpec -> {
-                    String commandLine = "docker compose -p " + getDockerComposeProject().getOrElse("app-config") + " ps --status=running | %GREP_COMMAND% "
-                        + getDockerComposeName().getOrElse("app-config");
-                    if (OSPlatform.isWindows()) {
-                        execSpec.commandLine("cmd", "/c", commandLine.replace("%GREP_COMMAND%", "findstr"));
-                    } else {
-                        execSpec.commandLine("sh", "-c", commandLine.replace("%GREP_COMMAND%", "grep"));
+    public void resolveLatestVersion() throws IOException {
+        final ComposeClient client = createClient();
+        final List<ComposeService> services = ComposeStartupOrder.sort(resolveServices());
+        final String fingerprint = fingerprint(services);
+        // with unchanged compose files and services, the running services are reused if they are still healthy
+        if (getDockerComposeReuseEnabled().getOrElse(Boolean.TRUE) && fingerprint.equals(readFingerprint()) && isHealthy(client, services)) {
+            getLogger().lifecycle("Reusing running docker compose services");
+            setDidWork(false);
+            return;
+        }
+        // services without dependencies are started together, the others as soon as their dependencies are healthy
+        final List<String> roots = services.stream().filter(service -> service.dependsOn().isEmpty()).map(ComposeService::name).toList();
+        getLogger().lifecycle("Iniciando " + String.join(", ", roots) + "...");
+        client.up(roots);
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final Map<String, CompletableFuture<Void>> started = new HashMap<>();
+            for (ComposeService service : services) {
+                final CompletableFuture<?>[] dependencies = service.dependsOn().stream().map(started::get).toArray(CompletableFuture[]::new);
+                started.put(service.name(), CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+                    if (!service.dependsOn().isEmpty()) {
+                        getLogger().lifecycle("Iniciando " + service.name() + "...");
+                        client.up(List.of(service.name()));
                     }
-                    execSpec.setStandardOutput(os);
-                });
-                result = os.toString();
-                getLogger().debug(result);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                    await(client, service);
+                }, executor));
             }
+            CompletableFuture.allOf(started.values().toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof GradleException cause ? cause : new GradleException(e.getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
-        getLogger().lifecycle("App-config disponible");
+        writeState(fingerprint, client.ps());
+    }
+
+    private boolean isHealthy(ComposeClient client, List<ComposeService> services) {
+        try {
+            final Map<String, ComposeServiceState> states = new HashMap<>();
+            client.ps().forEach(state -> states.put(state.service(), state));
+            return services.stream().allMatch(service -> states.containsKey(service.name()) && states.get(service.name()).isHealthy());
+        } catch (GradleException e) {
+            getLogger().info("Unable to check the docker compose services: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private String fingerprint(List<ComposeService> services) throws IOException {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (File file : new TreeSet<>(getDockerComposeFiles().getFiles())) {
+                digest.update(file.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+                if (file.isFile()) {
+                    digest.update(Files.readAllBytes(file.toPath()));
+                }
+            }
+            digest.update(services.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String readFingerprint() throws IOException {
+        final Path stateFile = getStateFile().get().getAsFile().toPath();
+        if (!Files.isRegularFile(stateFile)) {
+            return null;
+        }
+        return Files.readAllLines(stateFile).stream().filter(line -> line.startsWith(FINGERPRINT_PREFIX))
+            .map(line -> line.substring(FINGERPRINT_PREFIX.length())).findFirst().orElse(null);
+    }
+
+    private void writeState(String fingerprint, List<ComposeServiceState> states) throws IOException {
+        final StringBuilder content = new StringBuilder(FINGERPRINT_PREFIX).append(fingerprint).append(System.lineSeparator());
+        states.stream().sorted(Comparator.comparing(ComposeServiceState::service))
+            .forEach(state -> content.append(state.service()).append('=').append(state.name()).append(System.lineSeparator()));
+        final Path stateFile = getStateFile().get().getAsFile().toPath();
+        Files.createDirectories(stateFile.getParent());
+        Files.writeString(stateFile, content.toString());
     }
-}
 
+    private List<ComposeService> resolveServices() {
+        final List<ComposeService> services = getDockerComposeServices().getOrElse(List.of());
+        if (!services.isEmpty()) {
+            return services;
+        }
+        return List.of(new ComposeService(getDockerComposeName().getOrElse(ComposeClient.DEFAULT_SERVICE_NAME), List.of(),
+            getDockerComposeTimeout().getOrElse(DEFAULT_TIMEOUT_SECONDS)));
+    }
+
+    private void await(ComposeClient client, ComposeService service) {
+        getLogger().lifecycle("Esperando inicio de " + service.name() + "...");
+        try {
+            client.awaitHealthy(service.name(), Duration.ofSeconds(service.timeoutSeconds()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while waiting for " + service.name(), e);
+        }
+        getLogger().lifecycle(service.name() + " disponible");
+    }
+}
@@ -1,30 +1,32 @@
 package io.github.arielcarrera.build.features.boot.tasks;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 
-import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.TaskAction;
-import io.github.arielcarrera.build.features.utils.OSPlatform;
+import io.github.arielcarrera.build.features.boot.compose.ComposeClient;
+import io.github.arielcarrera.build.features.boot.compose.ComposeShutdownService;
 
-abstract public class StopAppConfigTask extends DefaultTask {
+abstract public class StopAppConfigTask extends BaseComposeTask {
 
     public static final String STOP_APP_CONFIG_TASK_NAME = "stopAppConfig";
 
-    @Optional
     @Input
-    abstract public Property<String> getDockerComposeFile();
+    abstract public ListProperty<String> getDockerComposeServices();
 
     @Optional
     @Input
-    abstract public Property<String> getDockerComposeName();
+    abstract public Property<Boolean> getDockerComposeStopAsync();
 
-    @Optional
-    @Input
-    abstract public Property<String> getDockerComposeProject();
+    @Internal
+    abstract public Property<ComposeShutdownService> getShutdownService();
 
     public StopAppConfigTask() {
         setDescription("This task stops the app-config");
@@ -32,44 +34,30 @@ abstract public class StopAppConfigTask extends DefaultTask {
 
     @TaskAction
     public void resolveLatestVersion() {
-        getLogger().lifecycle("Parando app-config...");
-        getProject().exec(execSpec -> {
-            String commandLine = "docker compose -f " + getDockerComposeFile().getOrElse("compose.yaml") + " stop " +
-                getDockerComposeName().getOrElse("appConfig");
-            if (OSPlatform.isWindows()) {
-                execSpec.commandLine("cmd", "/c", commandLine);
-            } else {
-                execSpec.commandLine("sh", "-c", commandLine);
-            }
-        });
-        int elapsed = 0;
-        String result = "";
-        while (!result.contains("Exited") && elapsed < 30) {
-            getLogger().lifecycle("Esperando finalizacion de app-config...");
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                // InterruptedException during sleep
-            }
-            elapsed++;
-            try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-                getProject().exec(execSpec -> {
-                    String commandLine = "docker compose -p " + getDockerComposeProject().getOrElse("app-config") + " ps --all --status=exited | %GREP_COMMAND% "
-                        + getDockerComposeName().getOrElse("app-config");
-                    if (OSPlatform.isWindows()) {
-                        execSpec.commandLine("cmd", "/c", commandLine.replace("%GREP_COMMAND%", "findstr"));
-                    } else {
-                        execSpec.commandLine("sh", "-c", commandLine.replace("%GREP_COMMAND%", "grep"));
-                    }
-                    execSpec.setStandardOutput(os);
-                });
-                result = os.toString();
-                getLogger().debug(result);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        final ComposeClient client = createClient();
+        final List<String> services = getDockerComposeServices().getOrElse(List.of()).isEmpty() ?
+            List.of(getDockerComposeName().getOrElse(ComposeClient.DEFAULT_SERVICE_NAME)) : getDockerComposeServices().get();
+        final Duration timeout = Duration.ofSeconds(getDockerComposeTimeout().getOrElse(DEFAULT_TIMEOUT_SECONDS));
+        if (getDockerComposeStopAsync().getOrElse(Boolean.FALSE)) {
+            getLogger().lifecycle("Parando " + String.join(", ", services) + " en segundo plano...");
+            // the stop command is detached, it is not awaited and it keeps running after the build
+            getShutdownService().get().submit(() -> client.stopDetached(services));
+        } else {
+            getLogger().lifecycle("Parando " + String.join(", ", services) + "...");
+            stop(client, services, timeout, getLogger());
+        }
+    }
+
+    private static void stop(ComposeClient client, List<String> services, Duration timeout, Logger logger) {
+        client.stop(services);
+        try {
+            for (String service : services) {
+                client.awaitExited(service, timeout);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while stopping " + String.join(", ", services), e);
         }
-        getLogger().lifecycle("App-config terminado.");
+        logger.lifecycle(String.join(", ", services) + " terminado.");
     }
 }
-
@@ -0,0 +1,23 @@
+package io.github.arielcarrera.build.features.coverage;
+
+import java.math.BigDecimal;
+
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+
+/**
+ * Coverage aggregation plugin extension ('buildFeaturesCoverage' block of the aggregator project).
+ *
+ * @author Ariel Carrera
+ */
+public interface CoverageAggregationExtension {
+
+    String EXTENSION_NAME = "buildFeaturesCoverage";
+
+    /**
+     * Class file patterns excluded from the aggregate report and verification (e.g. '**&#47;exception/**').
+     */
+    SetProperty<String> getExclusions();
+
+    Property<BigDecimal> getMinimumThreshold();
+}
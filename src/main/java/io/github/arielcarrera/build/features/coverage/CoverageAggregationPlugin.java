@@ -0,0 +1,150 @@
+package io.github.arielcarrera.build.features.coverage;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.gradle.api.Action;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ConfigurationPublications;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.attributes.Category;
+import org.gradle.api.attributes.VerificationType;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.testing.jacoco.plugins.JacocoPlugin;
+import org.gradle.testing.jacoco.plugins.JacocoTaskExtension;
+import org.gradle.testing.jacoco.tasks.JacocoCoverageVerification;
+import org.gradle.testing.jacoco.tasks.JacocoReport;
+import org.gradle.testing.jacoco.tasks.JacocoReportBase;
+
+/**
+ * Main class that implements the Coverage Aggregation Plugin, applied to the root (aggregator) project.
+ * <p>
+ * Every project with the test coverage enabled publishes its execution data, classes and sources as consumable variants
+ * (see {@link #configureVariants(Project, SourceSet, Collection)}), and this plugin resolves them from the aggregated projects (by default
+ * all the subprojects) into one report and one verification. The Jacoco report merges the execution data files itself.
+ * <p>
+ * The plugin does not declare repositories: the Jacoco tools are resolved with the repositories of the settings
+ * (dependencyResolutionManagement) or of the root project.
+ *
+ * @author Ariel Carrera
+ */
+public class CoverageAggregationPlugin implements Plugin<Project> {
+    public static final String PLUGIN_ID = CoverageAggregationPlugin.class.getPackageName();
+    public static final String AGGREGATION_CONFIGURATION_NAME = "coverageAggregation";
+    public static final String JACOCO_AGGREGATE_REPORT_TASK_NAME = "jacocoAggregateReport";
+    public static final String JACOCO_AGGREGATE_VERIFICATION_TASK_NAME = "jacocoAggregateCoverageVerification";
+    /**
+     * Verification types of the variants published by each project.
+     */
+    public static final String EXECUTION_DATA = "build-features-execution-data";
+    public static final String CLASSES = "build-features-classes";
+    public static final String SOURCES = "build-features-sources";
+
+    @Override
+    public void apply(Project project) {
+        final CoverageAggregationExtension extension = project.getExtensions()
+            .create(CoverageAggregationExtension.EXTENSION_NAME, CoverageAggregationExtension.class);
+        extension.getExclusions().convention(Collections.emptySet());
+        extension.getMinimumThreshold().convention(BigDecimal.ZERO);
+        project.getPluginManager().apply(JacocoPlugin.class);
+
+        final Configuration aggregation = project.getConfigurations().create(AGGREGATION_CONFIGURATION_NAME, configuration -> {
+            configuration.setDescription("Projects whose test coverage is aggregated (all the subprojects by default)");
+            configuration.setVisible(false);
+            configuration.setCanBeConsumed(false);
+            configuration.setCanBeResolved(false);
+            configuration.defaultDependencies(dependencies -> project.getSubprojects().forEach(subproject ->
+                dependencies.add(project.getDependencies().project(Map.of("path", subproject.getPath())))));
+        });
+        // the projects without test coverage do not publish the variants, they are ignored
+        final FileCollection executionData = resolve(project, aggregation, EXECUTION_DATA);
+        final FileCollection classDirectories = resolve(project, aggregation, CLASSES);
+        final FileCollection classes = project.files((Callable<FileTree>) () -> classDirectories.getAsFileTree()
+            .matching(pattern -> pattern.exclude(extension.getExclusions().get())));
+        final FileCollection sources = resolve(project, aggregation, SOURCES);
+
+        project.getTasks().register(JACOCO_AGGREGATE_REPORT_TASK_NAME, JacocoReport.class, task -> {
+            task.setDescription("Generates the test coverage report of all the projects");
+            task.reports(configurableReports -> {
+                configurableReports.getXml().getRequired().set(Boolean.TRUE);
+                configurableReports.getHtml().getRequired().set(Boolean.TRUE);
+            });
+        });
+        project.getTasks().register(JACOCO_AGGREGATE_VERIFICATION_TASK_NAME, JacocoCoverageVerification.class, task -> {
+            task.setDescription("Verifies the test coverage of all the projects");
+            task.violationRules(violationRules -> violationRules.rule(rule -> rule.limit(limit ->
+                limit.setMinimum(extension.getMinimumThreshold().get()))));
+        });
+        project.getTasks().withType(JacocoReportBase.class).matching(task -> JACOCO_AGGREGATE_REPORT_TASK_NAME.equals(task.getName()) ||
+            JACOCO_AGGREGATE_VERIFICATION_TASK_NAME.equals(task.getName())).configureEach(task -> {
+            task.getExecutionData().from(executionData);
+            task.getClassDirectories().from(classes);
+            task.getSourceDirectories().from(sources);
+        });
+    }
+
+    /**
+     * Publishes the coverage data of a project for the aggregation: the execution data of its test tasks, its main classes
+     * and its main sources.
+     * <p>
+     * The execution data is built by the test tasks, so the aggregation reuses their outputs when they are up-to-date or
+     * restored from the build cache.
+     *
+     * @param project the project
+     * @param main    the main source set
+     * @param tests   the test tasks
+     */
+    public static void configureVariants(Project project, SourceSet main, Collection<Test> tests) {
+        createVariant(project, EXECUTION_DATA, outgoing -> tests.forEach(test -> {
+            final JacocoTaskExtension jacoco = test.getExtensions().getByType(JacocoTaskExtension.class);
+            outgoing.artifact(project.provider(jacoco::getDestinationFile), artifact -> artifact.builtBy(test));
+        }));
+        createVariant(project, CLASSES, outgoing -> outgoing.artifact(main.getJava().getClassesDirectory()));
+        createVariant(project, SOURCES, outgoing -> main.getJava().getSrcDirs().forEach(outgoing::artifact));
+    }
+
+    private static void createVariant(Project project, String verificationType, Action<ConfigurationPublications> artifacts) {
+        project.getConfigurations().create(configurationName(verificationType, "Elements"), configuration -> {
+            configuration.setDescription("Test coverage data (" + verificationType + ") for the coverage aggregation");
+            configuration.setVisible(false);
+            configuration.setCanBeConsumed(true);
+            configuration.setCanBeResolved(false);
+            configuration.attributes(attributes -> attributes(attributes, project.getObjects(), verificationType));
+            artifacts.execute(configuration.getOutgoing());
+        });
+    }
+
+    private static FileCollection resolve(Project project, Configuration aggregation, String verificationType) {
+        final Configuration configuration = project.getConfigurations().create(configurationName(verificationType, "Aggregation"), c -> {
+            c.setVisible(false);
+            c.setCanBeConsumed(false);
+            c.setCanBeResolved(true);
+            c.extendsFrom(aggregation);
+            c.attributes(attributes -> attributes(attributes, project.getObjects(), verificationType));
+        });
+        return configuration.getIncoming().artifactView(view -> view.lenient(true)).getFiles();
+    }
+
+    private static void attributes(AttributeContainer attributes, ObjectFactory objects, String verificationType) {
+        attributes.attribute(Category.CATEGORY_ATTRIBUTE, objects.named(Category.class, Category.VERIFICATION));
+        attributes.attribute(VerificationType.VERIFICATION_TYPE_ATTRIBUTE, objects.named(VerificationType.class, verificationType));
+    }
+
+    private static String configurationName(String verificationType, String suffix) {
+        return switch (verificationType) {
+            case EXECUTION_DATA -> "coverageExecutionData";
+            case CLASSES -> "coverageClasses";
+            case SOURCES -> "coverageSources";
+            default -> throw new IllegalArgumentException("Unknown coverage data " + verificationType);
+        } + suffix;
+    }
+}
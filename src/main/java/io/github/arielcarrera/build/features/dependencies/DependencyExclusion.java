@@ -1,5 +1,7 @@
 package io.github.arielcarrera.build.features.dependencies;
 
+import java.io.Serializable;
+
 /**
  * Dependency Exclusion data definition.
  *
@@ -7,7 +9,7 @@ package io.github.arielcarrera.build.features.dependencies;
  * @param name  the dependency name to exclude
  * @author Ariel Carrera
  */
-public record DependencyExclusion(String group, String name) {
+public record DependencyExclusion(String group, String name) implements Serializable {
     @Override
     public boolean equals(Object obj) {
         if (obj == this)
@@ -1,5 +1,6 @@
 package io.github.arielcarrera.build.features.dependencies;
 
+import java.io.Serializable;
 import java.util.Set;
 
 import org.gradle.api.plugins.ExtraPropertiesExtension;
@@ -17,7 +18,7 @@ import org.gradle.api.plugins.ExtraPropertiesExtension;
  * @author Ariel Carrera
  */
 public record DependencyMetadata(String configuration, String group, String name, String version, String versionProperty,
-                                 Set<DependencyExclusion> excludedDependencies, String activationCondition) {
+                                 Set<DependencyExclusion> excludedDependencies, String activationCondition) implements Serializable {
 
     @Override
     public boolean equals(Object obj) {
@@ -51,11 +52,9 @@ public record DependencyMetadata(String configuration, String group, String name
     }
 
     public String resolve(ExtraPropertiesExtension extraPropertiesExtension) {
-        if (versionProperty != null) {
-            Object value = extraPropertiesExtension.getProperties().get(versionProperty);
-            if (value instanceof String strValue) {
-                return group + ":" + name + ":" + strValue;
-            }
+        final String overriddenVersion = resolveOverriddenVersion(extraPropertiesExtension);
+        if (overriddenVersion != null) {
+            return group + ":" + name + ":" + overriddenVersion;
         }
         if (version != null) {
             return group + ":" + name + ":" + version;
@@ -64,6 +63,22 @@ public record DependencyMetadata(String configuration, String group, String name
         return group + ":" + name;
     }
 
+    /**
+     * Returns the version defined by the user with the version property.
+     *
+     * @param extraPropertiesExtension the project extra properties
+     * @return the overridden version, null if the property is not defined
+     */
+    public String resolveOverriddenVersion(ExtraPropertiesExtension extraPropertiesExtension) {
+        if (versionProperty != null) {
+            Object value = extraPropertiesExtension.getProperties().get(versionProperty);
+            if (value instanceof String strValue) {
+                return strValue;
+            }
+        }
+        return null;
+    }
+
     @Override
     public String toString() {
         if (version != null) {
@@ -1,5 +1,6 @@
 package io.github.arielcarrera.build.features.dependencies;
 
+import java.io.Serializable;
 import java.util.Set;
 
 /**
@@ -9,9 +10,14 @@ import java.util.Set;
  * @param name the name of the feature
  * @param dependencies the dependencies included in the feature
  * @param activationProperty the activation condition/property of the feature
+ * @param aotCompatible if the feature supports Spring AOT / native images (null if unknown)
  * @author Ariel Carrera
  */
-public record Feature(String key, String name, Set<DependencyMetadata> dependencies, String activationProperty) {
+public record Feature(String key, String name, Set<DependencyMetadata> dependencies, String activationProperty, Boolean aotCompatible) implements Serializable {
+
+    public Feature(String key, String name, Set<DependencyMetadata> dependencies, String activationProperty) {
+        this(key, name, dependencies, activationProperty, null);
+    }
 
     @Override
     public boolean equals(Object obj) {
@@ -0,0 +1,104 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Build service that caches the feature catalog and the feature selection of each project.
+ * <p>
+ * The catalog is fingerprinted by the feature files and the selection by the enabled feature keys. Both are persisted in
+ * the project cache directory (see {@link FeatureCacheStore}), so the next builds do not scan and apply the feature files
+ * again, and a selection change (e.g. a new {@code enable 'springKafka'}) only evaluates the affected features and reports
+ * the added and removed dependencies.
+ *
+ * @author Ariel Carrera
+ */
+public abstract class FeatureCacheService implements BuildService<FeatureCacheService.Parameters> {
+    public static final String NAME = "buildFeaturesCache";
+    public static final String CACHE_DIRECTORY = "buildFeatures";
+    private static final Logger LOGGER = Logging.getLogger(FeatureCacheService.class);
+
+    public interface Parameters extends BuildServiceParameters {
+        DirectoryProperty getCacheDirectory();
+    }
+
+    private final Map<String, List<Feature>> catalogs = new ConcurrentHashMap<>();
+    private FeatureCacheStore store;
+
+    /**
+     * Registers the service.
+     *
+     * @param gradle  the gradle instance
+     * @param rootDir the root directory of the build
+     * @return the service provider
+     */
+    public static Provider<FeatureCacheService> register(Gradle gradle, File rootDir) {
+        final File projectCacheDir = gradle.getStartParameter().getProjectCacheDir();
+        final File cacheDir = new File(projectCacheDir != null ? projectCacheDir : new File(rootDir, ".gradle"), CACHE_DIRECTORY);
+        return gradle.getSharedServices().registerIfAbsent(NAME, FeatureCacheService.class, spec ->
+            spec.getParameters().getCacheDirectory().set(cacheDir));
+    }
+
+    /**
+     * Gets the catalog definitions.
+     *
+     * @param fingerprint the fingerprint of the feature files
+     * @param loader      loads the definitions if they are not cached
+     * @return the feature definitions
+     */
+    public List<Feature> getCatalog(String fingerprint, Supplier<List<Feature>> loader) {
+        // projects can be configured in parallel, the definitions are loaded once
+        return catalogs.computeIfAbsent(fingerprint, key -> {
+            final List<Feature> stored = getStore().readCatalog(key);
+            if (stored != null) {
+                LOGGER.info("Feature catalog loaded from the cache ({})", key);
+                return List.copyOf(stored);
+            }
+            final List<Feature> features = List.copyOf(loader.get());
+            getStore().writeCatalog(key, features);
+            return features;
+        });
+    }
+
+    /**
+     * Selects the features of a project, updating the selection of the previous build.
+     *
+     * @param projectPath     the project path
+     * @param enabledFeatures the enabled features
+     * @return the selection
+     */
+    public synchronized FeatureSelection select(String projectPath, List<Feature> enabledFeatures) {
+        final FeatureSelection previous = getStore().readSelection(projectPath);
+        final FeatureSelection selection = FeatureSelection.update(previous, enabledFeatures);
+        if (previous == null) {
+            LOGGER.info("Feature selection of {}: {}", projectPath, selection.fingerprint());
+        } else if (selection == previous) {
+            LOGGER.info("Feature selection of {} unchanged", projectPath);
+            return selection;
+        } else {
+            final FeatureSelection.Delta delta = selection.delta(previous);
+            LOGGER.info("Feature selection of {} changed: {} dependencies added {}, {} removed {}", projectPath,
+                delta.added().size(), delta.added(), delta.removed().size(), delta.removed());
+        }
+        getStore().writeSelection(projectPath, selection);
+        return selection;
+    }
+
+    private synchronized FeatureCacheStore getStore() {
+        if (store == null) {
+            store = new FeatureCacheStore(getParameters().getCacheDirectory().get().getAsFile().toPath());
+        }
+        return store;
+    }
+}
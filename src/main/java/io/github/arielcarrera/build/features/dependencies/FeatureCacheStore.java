@@ -0,0 +1,183 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Store of the feature catalog and of the feature selection of each project, persisted between builds in a directory of
+ * the project cache (.gradle/buildFeatures).
+ * <p>
+ * The catalog file is named after the fingerprint of the feature files, so a new version of the feature files is loaded
+ * again (the files of the previous versions are deleted). The selection file is named after the project path. A file that
+ * cannot be read (e.g. written by another version of the plugin) is ignored.
+ *
+ * @author Ariel Carrera
+ */
+public class FeatureCacheStore {
+    private static final Logger LOGGER = Logging.getLogger(FeatureCacheStore.class);
+    /**
+     * Version of the file format, part of the file names.
+     */
+    private static final String FORMAT_VERSION = "1";
+    private static final String CATALOG_PREFIX = "catalog-";
+    private static final String SELECTION_PREFIX = "selection-";
+    private static final String EXTENSION = ".bin";
+
+    private final Path directory;
+
+    public FeatureCacheStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads a catalog.
+     *
+     * @param fingerprint the fingerprint of the feature files
+     * @return the feature definitions, or null if the catalog is not stored
+     */
+    public List<Feature> readCatalog(String fingerprint) {
+        final Catalog catalog = read(catalogFile(fingerprint), Catalog.class);
+        return catalog != null && fingerprint.equals(catalog.fingerprint()) ? catalog.features() : null;
+    }
+
+    /**
+     * Writes a catalog and deletes the catalogs of other fingerprints.
+     *
+     * @param fingerprint the fingerprint of the feature files
+     * @param features    the feature definitions
+     */
+    public void writeCatalog(String fingerprint, List<Feature> features) {
+        final Path file = catalogFile(fingerprint);
+        if (write(file, new Catalog(fingerprint, new ArrayList<>(features)))) {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(other -> other.getFileName().toString().startsWith(CATALOG_PREFIX) && !other.equals(file))
+                    .forEach(this::delete);
+            } catch (IOException e) {
+                LOGGER.info("Unable to delete the previous feature catalogs: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the selection of a project.
+     *
+     * @param projectPath the project path
+     * @return the selection of the previous build, or null if it is not stored
+     */
+    public FeatureSelection readSelection(String projectPath) {
+        final Selection selection = read(selectionFile(projectPath), Selection.class);
+        return selection != null && projectPath.equals(selection.projectPath()) ? selection.selection() : null;
+    }
+
+    /**
+     * Writes the selection of a project.
+     *
+     * @param projectPath the project path
+     * @param selection   the selection
+     */
+    public void writeSelection(String projectPath, FeatureSelection selection) {
+        write(selectionFile(projectPath), new Selection(projectPath, selection));
+    }
+
+    private Path catalogFile(String fingerprint) {
+        return directory.resolve(CATALOG_PREFIX + hash(fingerprint) + EXTENSION);
+    }
+
+    private Path selectionFile(String projectPath) {
+        return directory.resolve(SELECTION_PREFIX + hash(projectPath) + EXTENSION);
+    }
+
+    private <T> T read(Path file, Class<T> type) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream input = Files.newInputStream(file); ObjectInputStream objects = new PluginObjectInputStream(input)) {
+            final Object value = objects.readObject();
+            return type.isInstance(value) ? type.cast(value) : null;
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            LOGGER.info("Ignoring the build features cache file {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    private boolean write(Path file, Serializable value) {
+        try {
+            Files.createDirectories(directory);
+            // written to a temporal file and moved, so a concurrent build never reads a partial file
+            final Path temporal = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (OutputStream output = Files.newOutputStream(temporal); ObjectOutputStream objects = new ObjectOutputStream(output)) {
+                objects.writeObject(value);
+            }
+            Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            LOGGER.info("Unable to write the build features cache file {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.info("Unable to delete the build features cache file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String hash(String value) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest((FORMAT_VERSION + ":" + value).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Catalog(String fingerprint, List<Feature> features) implements Serializable {
+    }
+
+    private record Selection(String projectPath, FeatureSelection selection) implements Serializable {
+    }
+
+    /**
+     * Resolves the classes with the class loader of the plugin, which is not the default one of the object streams when the
+     * plugin is loaded by Gradle.
+     */
+    private static class PluginObjectInputStream extends ObjectInputStream {
+
+        PluginObjectInputStream(InputStream input) throws IOException {
+            super(input);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            final String name = description.getName();
+            if (name.startsWith(FeatureCacheStore.class.getPackageName())) {
+                return Class.forName(name, false, FeatureCacheStore.class.getClassLoader());
+            }
+            if (!name.startsWith("java.") && !name.startsWith("[")) {
+                throw new InvalidClassException(name, "Unexpected class in the build features cache");
+            }
+            return super.resolveClass(description);
+        }
+    }
+}
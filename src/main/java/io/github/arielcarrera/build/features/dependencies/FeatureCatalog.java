@@ -0,0 +1,52 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.util.List;
+
+import org.gradle.api.invocation.Gradle;
+
+/**
+ * Feature catalog loaded once for the whole build by the settings plugin.
+ * <p>
+ * It is registered as an extension of the {@link Gradle} instance, so the project plugins only register the catalog
+ * definitions instead of scanning and applying the feature files of every project.
+ *
+ * @author Ariel Carrera
+ */
+public class FeatureCatalog {
+
+    public static final String EXTENSION_NAME = "buildFeaturesCatalog";
+
+    private final List<Feature> features;
+
+    private boolean repositoriesManaged;
+
+    public FeatureCatalog(List<Feature> features) {
+        this.features = List.copyOf(features);
+    }
+
+    public List<Feature> getFeatures() {
+        return features;
+    }
+
+    /**
+     * @return true if the repositories are declared by the settings (dependency resolution management)
+     */
+    public boolean isRepositoriesManaged() {
+        return repositoriesManaged;
+    }
+
+    public void setRepositoriesManaged(boolean repositoriesManaged) {
+        this.repositoriesManaged = repositoriesManaged;
+    }
+
+    /**
+     * Finds the catalog of the build.
+     *
+     * @param gradle the gradle instance
+     * @return the catalog, or null if the settings plugin is not applied (or it was loaded by a different class loader)
+     */
+    public static FeatureCatalog find(Gradle gradle) {
+        final Object catalog = gradle.getExtensions().findByName(EXTENSION_NAME);
+        return catalog instanceof FeatureCatalog featureCatalog ? featureCatalog : null;
+    }
+}
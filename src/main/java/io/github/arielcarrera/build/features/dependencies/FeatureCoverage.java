@@ -0,0 +1,87 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Calculates the features that cover a set of declared dependencies (greedy set cover).
+ * <p>
+ * A feature is a candidate only when all its unconditional dependencies are already declared, so enabling it never adds new
+ * dependencies to the project. Conditional dependencies are not considered.
+ *
+ * @author Ariel Carrera
+ */
+public final class FeatureCoverage {
+
+    /**
+     * Result of the coverage.
+     *
+     * @param features  the features proposed, in order of selection
+     * @param covered   the declared dependencies covered by the proposed features
+     * @param leftovers the declared dependencies that are not covered by any feature
+     */
+    public record Result(List<Feature> features, Set<String> covered, Set<String> leftovers) {
+    }
+
+    private FeatureCoverage() {
+    }
+
+    /**
+     * Key of a dependency in a configuration.
+     *
+     * @param configuration the configuration name
+     * @param group         the dependency group
+     * @param name          the dependency name
+     * @return key with the form 'configuration:group:name'
+     */
+    public static String key(String configuration, String group, String name) {
+        return configuration + ":" + group + ":" + name;
+    }
+
+    /**
+     * Calculates the features covering the declared dependencies.
+     *
+     * @param declared   keys of the declared dependencies (see {@link #key(String, String, String)})
+     * @param candidates feature definitions
+     * @return the coverage result
+     */
+    public static Result compute(Set<String> declared, Collection<Feature> candidates) {
+        final Map<Feature, Set<String>> coverage = candidates.stream()
+            .filter(feature -> feature.dependencies().stream().anyMatch(dep -> dep.activationCondition() == null))
+            .collect(Collectors.toMap(feature -> feature, FeatureCoverage::unconditionalKeys));
+        coverage.values().removeIf(keys -> !declared.containsAll(keys));
+
+        final Set<String> uncovered = new HashSet<>(declared);
+        final List<Feature> selected = new ArrayList<>();
+        final Comparator<Map.Entry<Feature, Set<String>>> byGain = Comparator.comparingInt(entry -> gain(entry.getValue(), uncovered));
+        while (!uncovered.isEmpty() && !coverage.isEmpty()) {
+            final Map.Entry<Feature, Set<String>> best = coverage.entrySet().stream()
+                .max(byGain.thenComparing(entry -> entry.getKey().key(), Comparator.reverseOrder())).orElseThrow();
+            if (gain(best.getValue(), uncovered) == 0) {
+                break;
+            }
+            selected.add(best.getKey());
+            uncovered.removeAll(best.getValue());
+            coverage.remove(best.getKey());
+        }
+        final Set<String> covered = new TreeSet<>(declared);
+        covered.removeAll(uncovered);
+        return new Result(selected, covered, new TreeSet<>(uncovered));
+    }
+
+    private static Set<String> unconditionalKeys(Feature feature) {
+        return feature.dependencies().stream().filter(dep -> dep.activationCondition() == null)
+            .map(dep -> key(dep.configuration(), dep.group(), dep.name())).collect(Collectors.toSet());
+    }
+
+    private static int gain(Set<String> keys, Set<String> uncovered) {
+        return (int) keys.stream().filter(uncovered::contains).count();
+    }
+}
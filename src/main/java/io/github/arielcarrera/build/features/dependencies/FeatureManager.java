@@ -3,6 +3,7 @@ package io.github.arielcarrera.build.features.dependencies;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.gradle.api.Action;
 import org.gradle.api.artifacts.ExcludeRule;
@@ -23,26 +24,45 @@ public class FeatureManager {
     private final FeatureRegistry registry;
     private final Logger logger;
     private final ExtraPropertiesExtension extraPropertiesExtension;
+    private final boolean versionOverridesAsConstraints;
 
     public FeatureManager(DependencyHandler dependencyHandler, FeatureRegistry registry, Logger logger, ExtraPropertiesExtension extraPropertiesExtension) {
+        this(dependencyHandler, registry, logger, extraPropertiesExtension, false);
+    }
+
+    /**
+     * Creates the manager.
+     *
+     * @param versionOverridesAsConstraints if true, the versions overridden by a version property are added as strict
+     *                                      constraints (platform dependency management modes) instead of dependency versions
+     */
+    public FeatureManager(DependencyHandler dependencyHandler, FeatureRegistry registry, Logger logger, ExtraPropertiesExtension extraPropertiesExtension,
+                          boolean versionOverridesAsConstraints) {
         this.dependencyHandler = dependencyHandler;
         this.registry = registry;
         this.logger = logger;
         this.extraPropertiesExtension = extraPropertiesExtension;
+        this.versionOverridesAsConstraints = versionOverridesAsConstraints;
     }
 
     public void applyDependencies() {
+        applyDependencies(FeatureSelection::resolve);
+    }
+
+    /**
+     * Applies the dependencies of the enabled features.
+     *
+     * @param selectionResolver resolves the selection of the enabled features (e.g. from the selection of the previous build)
+     */
+    public void applyDependencies(Function<List<Feature>, FeatureSelection> selectionResolver) {
         logger.lifecycle("Adding features:");
         registry.validateSelectedFeatures();
         List<Feature> featuresEnabled = registry.getFeaturesEnabled();
         featuresEnabled.stream().sorted(Comparator.comparing(Feature::name)).forEach(feature -> logger.lifecycle("> Feature: " + feature.name() + " enabled"));
-        featuresEnabled.stream().flatMap(feature -> feature.dependencies().stream()).forEach(
+        selectionResolver.apply(featuresEnabled).dependencies().forEach(
             dep -> {
                 if (dep.excludedDependencies().isEmpty()) {
-                    //check conditional
-                    if (checkActivationCondition(dep)) {
-                        dependencyHandler.add(dep.configuration(), dep.resolve(extraPropertiesExtension));
-                    }
+                    dependencyHandler.add(dep.configuration(), resolveNotation(dep));
                 } else {
                     Action<ModuleDependency> action = (dependency) -> {
                         dep.excludedDependencies().forEach(exclusion ->
@@ -58,24 +78,24 @@ public class FeatureManager {
                             }
                         );
                     };
-                    //check conditional
-                    if (checkActivationCondition(dep)) {
-                        dependencyHandler.add(dep.configuration(), dep.resolve(extraPropertiesExtension), new ActionClosure<>(this, action));
-                    }
+                    dependencyHandler.add(dep.configuration(), resolveNotation(dep), new ActionClosure<>(this, action));
                 }
             }
         );
     }
 
-    private boolean checkActivationCondition(DependencyMetadata dep) {
-        if (dep.activationCondition() == null) {
-            return true;
-        } else if (dep.activationCondition().startsWith("!")) {
-            // not enabled check...
-            final String condition = dep.activationCondition().substring(1);
-            return registry.getFeaturesEnabled().stream().noneMatch(feature -> condition.equals(feature.key()));
+    private String resolveNotation(DependencyMetadata dep) {
+        if (versionOverridesAsConstraints) {
+            final String overriddenVersion = dep.resolveOverriddenVersion(extraPropertiesExtension);
+            if (overriddenVersion != null) {
+                //a strict constraint wins over the version of the platform (BOM)
+                dependencyHandler.getConstraints().add(dep.configuration(), dep.group() + ":" + dep.name(), constraint -> {
+                    constraint.version(version -> version.strictly(overriddenVersion));
+                    constraint.because("Version overridden by the property '" + dep.versionProperty() + "'");
+                });
+                return dep.group() + ":" + dep.name();
+            }
         }
-
-        return registry.getFeaturesEnabled().stream().anyMatch(feature -> dep.activationCondition().equals(feature.key()));
+        return dep.resolve(extraPropertiesExtension);
     }
-}
\ No newline at end of file
+}
@@ -30,9 +30,14 @@ public class FeatureRegistry {
     }
 
     public void addFeatureDefinition(String key, String name, Set<DependencyMetadata> dependencies, String activationProperty) {
+        addFeatureDefinition(key, name, dependencies, activationProperty, null);
+    }
+
+    public void addFeatureDefinition(String key, String name, Set<DependencyMetadata> dependencies, String activationProperty,
+                                     Boolean aotCompatible) {
         logger.info("Registering feature key '%s', name '%s', dependency count '%d', activationProperty '%s'".formatted(key, name, dependencies.size(), activationProperty));
         Set<DependencyMetadata> deps = (dependencies != null) ? dependencies : Collections.emptySet();
-        Feature feature = new Feature(key, name, deps, activationProperty);
+        Feature feature = new Feature(key, name, deps, activationProperty, aotCompatible);
         this.features.add(feature);
     }
 
@@ -0,0 +1,161 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Dependencies of the enabled features (selection) with their activation conditions evaluated.
+ * <p>
+ * A selection can be updated from a previous one (e.g. restored from the previous build): the dependencies of a feature are
+ * reused when its definition did not change and none of its activation conditions refers to an added or removed feature,
+ * so a selection change only evaluates the affected features.
+ *
+ * @param fingerprint the fingerprint of the selection (enabled feature keys)
+ * @param entries     the activated dependencies of each enabled feature by key, in selection order
+ * @author Ariel Carrera
+ */
+public record FeatureSelection(String fingerprint, Map<String, Entry> entries) implements Serializable {
+
+    /**
+     * Activated dependencies of a feature.
+     *
+     * @param feature      the feature definition
+     * @param dependencies the dependencies whose activation condition is met
+     */
+    public record Entry(Feature feature, List<DependencyMetadata> dependencies) implements Serializable {
+    }
+
+    /**
+     * Dependencies added and removed between two selections.
+     *
+     * @param added   the added dependencies
+     * @param removed the removed dependencies
+     */
+    public record Delta(Set<DependencyMetadata> added, Set<DependencyMetadata> removed) {
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    /**
+     * @return the activated dependencies of all the enabled features
+     */
+    public List<DependencyMetadata> dependencies() {
+        return entries.values().stream().flatMap(entry -> entry.dependencies().stream()).collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the dependencies added and removed since a previous selection.
+     *
+     * @param previous the previous selection, may be null
+     * @return the delta
+     */
+    public Delta delta(FeatureSelection previous) {
+        final Set<DependencyMetadata> current = new LinkedHashSet<>(dependencies());
+        final Set<DependencyMetadata> before = previous == null ? Collections.emptySet() : new LinkedHashSet<>(previous.dependencies());
+        final Set<DependencyMetadata> added = current.stream().filter(dep -> !before.contains(dep)).collect(Collectors.toCollection(LinkedHashSet::new));
+        final Set<DependencyMetadata> removed = before.stream().filter(dep -> !current.contains(dep)).collect(Collectors.toCollection(LinkedHashSet::new));
+        return new Delta(added, removed);
+    }
+
+    /**
+     * Computes the fingerprint of a selection.
+     *
+     * @param enabledFeatures the enabled features
+     * @return the sorted feature keys
+     */
+    public static String fingerprint(Collection<Feature> enabledFeatures) {
+        return enabledFeatures.stream().map(Feature::key).sorted().collect(Collectors.joining(","));
+    }
+
+    /**
+     * Resolves a selection.
+     *
+     * @param enabledFeatures the enabled features
+     * @return the selection
+     */
+    public static FeatureSelection resolve(List<Feature> enabledFeatures) {
+        return update(null, enabledFeatures);
+    }
+
+    /**
+     * Updates a previous selection, only the added or redefined features and the features with an activation condition on
+     * an added or removed feature are evaluated.
+     *
+     * @param previous        the previous selection, may be null
+     * @param enabledFeatures the enabled features
+     * @return the selection (the previous one if nothing changed)
+     */
+    public static FeatureSelection update(FeatureSelection previous, List<Feature> enabledFeatures) {
+        final String fingerprint = fingerprint(enabledFeatures);
+        final Set<String> enabledKeys = enabledFeatures.stream().map(Feature::key).collect(Collectors.toSet());
+        final Set<String> changedKeys = new HashSet<>(enabledKeys);
+        if (previous != null) {
+            previous.entries().keySet().forEach(key -> {
+                if (!changedKeys.remove(key)) {
+                    changedKeys.add(key);
+                }
+            });
+        }
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+        boolean reused = previous != null;
+        for (Feature feature : enabledFeatures) {
+            final Entry entry = previous == null ? null : previous.entries().get(feature.key());
+            if (entry != null && sameDefinition(entry.feature(), feature) && !dependsOn(feature, changedKeys)) {
+                entries.put(feature.key(), entry);
+            } else {
+                entries.put(feature.key(), new Entry(feature, activatedDependencies(feature, enabledKeys)));
+                reused = false;
+            }
+        }
+        if (reused && fingerprint.equals(previous.fingerprint())) {
+            return previous;
+        }
+        return new FeatureSelection(fingerprint, Collections.unmodifiableMap(entries));
+    }
+
+    /**
+     * Compares every attribute of two feature definitions (the equality of the features and dependencies only uses their
+     * keys).
+     */
+    static boolean sameDefinition(Feature feature, Feature other) {
+        return Objects.equals(feature.key(), other.key()) && Objects.equals(feature.name(), other.name())
+            && Objects.equals(feature.activationProperty(), other.activationProperty())
+            && Objects.equals(feature.aotCompatible(), other.aotCompatible())
+            && definitions(feature.dependencies()).equals(definitions(other.dependencies()));
+    }
+
+    private static Set<List<Object>> definitions(Set<DependencyMetadata> dependencies) {
+        return dependencies.stream().map(dep -> Arrays.<Object>asList(dep.configuration(), dep.group(), dep.name(), dep.version(),
+            dep.versionProperty(), dep.excludedDependencies(), dep.activationCondition())).collect(Collectors.toSet());
+    }
+
+    private static boolean dependsOn(Feature feature, Set<String> keys) {
+        return !keys.isEmpty() && feature.dependencies().stream().map(DependencyMetadata::activationCondition).filter(Objects::nonNull)
+            .anyMatch(condition -> keys.contains(condition.startsWith("!") ? condition.substring(1) : condition));
+    }
+
+    private static List<DependencyMetadata> activatedDependencies(Feature feature, Set<String> enabledKeys) {
+        return feature.dependencies().stream().filter(dep -> {
+            final String condition = dep.activationCondition();
+            if (condition == null) {
+                return true;
+            } else if (condition.startsWith("!")) {
+                // not enabled check...
+                return !enabledKeys.contains(condition.substring(1));
+            }
+            return enabledKeys.contains(condition);
+        }).collect(Collectors.toUnmodifiableList());
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.gradle.api.InvalidUserDataException;
+
+/**
+ * Generator of a Gradle version catalog (libs.versions.toml) from the feature definitions.
+ * <p>
+ * Every dependency becomes a library (the versions defined by a version property are shared in the [versions] section with
+ * the property name), every feature becomes a bundle of its unconditional dependencies, with an additional bundle for each
+ * test, annotation processor or compile only configuration (e.g. 'spring-kafka-test-implementation'), and the BOMs are
+ * added as libraries to be used as platforms.
+ * <p>
+ * The aliases are unique: a version alias used with two different versions or a module declared with two different
+ * versions fails the generation, and the library aliases of the artifacts with the same name are prefixed by as many
+ * segments of their group as needed. The library aliases starting with a reserved name (plugins, versions or bundles) are
+ * rejected.
+ *
+ * @author Ariel Carrera
+ */
+public final class VersionCatalogGenerator {
+
+    private static final Set<String> MAIN_CONFIGURATIONS = Set.of("implementation", "api", "runtimeOnly");
+    private static final Set<String> RESERVED_ALIAS_PREFIXES = Set.of("plugins", "versions", "bundles");
+
+    private VersionCatalogGenerator() {
+    }
+
+    /**
+     * Generates the content of the version catalog.
+     *
+     * @param features  the feature definitions
+     * @param platforms the BOMs ('group:name' to version)
+     * @return the TOML content
+     */
+    public static String generate(Collection<Feature> features, Map<String, String> platforms) {
+        final Map<String, String> versions = new TreeMap<>();
+        final Map<String, String> libraries = new TreeMap<>();
+        final Map<String, Set<String>> bundles = new TreeMap<>();
+        final Map<String, String> aliases = libraryAliases(features, platforms.keySet());
+        platforms.forEach((module, version) -> {
+            final String versionAlias = toAlias(module.substring(module.indexOf(':') + 1).replaceAll("-dependencies$|-bom$", ""));
+            putVersion(versions, versionAlias, version, module);
+            putLibrary(libraries, aliases.get(module), "{ module = %s, version.ref = %s }".formatted(quote(module), quote(versionAlias)));
+        });
+        features.stream().sorted(Comparator.comparing(Feature::key)).forEach(feature -> {
+            final String featureAlias = toAlias(feature.key());
+            feature.dependencies().stream().sorted(Comparator.comparing(DependencyMetadata::toString)).forEach(dependency -> {
+                final String module = dependency.group() + ":" + dependency.name();
+                final String alias = aliases.get(module);
+                if (dependency.versionProperty() != null && dependency.version() != null) {
+                    final String versionAlias = toAlias(dependency.versionProperty());
+                    putVersion(versions, versionAlias, dependency.version(), module);
+                    putLibrary(libraries, alias, "{ module = %s, version.ref = %s }".formatted(quote(module), quote(versionAlias)));
+                } else if (dependency.version() != null) {
+                    putLibrary(libraries, alias, "{ module = %s, version = %s }".formatted(quote(module), quote(dependency.version())));
+                } else {
+                    // version managed by the BOMs
+                    putLibrary(libraries, alias, "{ module = %s }".formatted(quote(module)));
+                }
+                if (dependency.activationCondition() == null) {
+                    final String bundle = MAIN_CONFIGURATIONS.contains(dependency.configuration()) ? featureAlias :
+                        featureAlias + "-" + toAlias(dependency.configuration());
+                    bundles.computeIfAbsent(bundle, key -> new TreeSet<>()).add(alias);
+                }
+            });
+        });
+        final StringBuilder builder = new StringBuilder("# Generated by the Build Features plugin, do not edit\n");
+        builder.append("\n[versions]\n");
+        versions.forEach((alias, version) -> builder.append(alias).append(" = ").append(quote(version)).append('\n'));
+        builder.append("\n[libraries]\n");
+        libraries.forEach((alias, library) -> builder.append(alias).append(" = ").append(library).append('\n'));
+        builder.append("\n[bundles]\n");
+        bundles.forEach((alias, members) -> builder.append(alias).append(" = [")
+            .append(members.stream().map(VersionCatalogGenerator::quote).collect(Collectors.joining(", "))).append("]\n"));
+        return builder.toString();
+    }
+
+    /**
+     * Converts a name to a catalog alias (e.g. 'springBootWeb' to 'spring-boot-web').
+     *
+     * @param name the name
+     * @return the alias
+     */
+    public static String toAlias(String name) {
+        final String alias = name.replaceAll("([a-z0-9])([A-Z])", "$1-$2").replaceAll("[^A-Za-z0-9]+", "-").toLowerCase();
+        // the alias segments cannot start with a digit
+        return alias.replaceAll("^-+|-+$", "").replaceAll("-(?=[0-9])", "");
+    }
+
+    private static void putVersion(Map<String, String> versions, String alias, String version, String module) {
+        final String previous = versions.putIfAbsent(alias, version);
+        if (previous != null && !previous.equals(version)) {
+            throw new InvalidUserDataException("Version alias '%s' of '%s' is already used with version '%s' (version '%s')"
+                .formatted(alias, module, previous, version));
+        }
+    }
+
+    private static void putLibrary(Map<String, String> libraries, String alias, String library) {
+        final String previous = libraries.putIfAbsent(alias, library);
+        if (previous != null && !previous.equals(library)) {
+            throw new InvalidUserDataException("Library '%s' is declared as %s and as %s".formatted(alias, previous, library));
+        }
+    }
+
+    /**
+     * The library alias is the artifact name, prefixed by the last segments of the group (as many as needed to be unique)
+     * when several modules have the same alias.
+     */
+    static Map<String, String> libraryAliases(Collection<Feature> features, Collection<String> platforms) {
+        final Set<String> modules = new TreeSet<>(platforms);
+        features.forEach(feature -> feature.dependencies().forEach(dependency -> modules.add(dependency.group() + ":" + dependency.name())));
+        // number of group segments of the alias of each module
+        final Map<String, Integer> levels = new TreeMap<>();
+        modules.forEach(module -> levels.put(module, 0));
+        while (true) {
+            final Map<String, List<String>> modulesByAlias = modules.stream()
+                .collect(Collectors.groupingBy(module -> libraryAlias(module, levels.get(module)), TreeMap::new, Collectors.toList()));
+            final List<List<String>> duplicates = modulesByAlias.values().stream().filter(sameAlias -> sameAlias.size() > 1).toList();
+            if (duplicates.isEmpty()) {
+                final Map<String, String> aliases = new HashMap<>();
+                modulesByAlias.forEach((alias, sameAlias) -> {
+                    final String firstSegment = alias.split("-")[0];
+                    if (RESERVED_ALIAS_PREFIXES.contains(firstSegment)) {
+                        throw new InvalidUserDataException("Catalog alias '%s' of '%s' starts with the reserved name '%s'"
+                            .formatted(alias, sameAlias.get(0), firstSegment));
+                    }
+                    aliases.put(sameAlias.get(0), alias);
+                });
+                return aliases;
+            }
+            for (List<String> sameAlias : duplicates) {
+                final List<String> prefixable = sameAlias.stream().filter(module -> levels.get(module) < groupSegments(module).length).toList();
+                if (prefixable.isEmpty()) {
+                    throw new InvalidUserDataException("Modules %s have the same catalog alias '%s'".formatted(sameAlias,
+                        libraryAlias(sameAlias.get(0), levels.get(sameAlias.get(0)))));
+                }
+                prefixable.forEach(module -> levels.merge(module, 1, Integer::sum));
+            }
+        }
+    }
+
+    private static String libraryAlias(String module, int level) {
+        final String[] segments = groupSegments(module);
+        final List<String> prefix = List.of(segments).subList(segments.length - level, segments.length);
+        return toAlias((prefix.isEmpty() ? "" : String.join("-", prefix) + "-") + module.substring(module.indexOf(':') + 1));
+    }
+
+    private static String[] groupSegments(String module) {
+        return module.substring(0, module.indexOf(':')).split("\\.");
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -91,7 +91,8 @@ class DefaultDefinitionsHandler implements DefinitionsHandler {
         }
         Set<DependencyMetadata> dependencies = dependenciesHandler.getDependencies();
         // add metadata to the registry
-        this.registry.addFeatureDefinition(key, name, dependencies, StringUtils.isBlank(activationProperty) ? key : activationProperty);
+        this.registry.addFeatureDefinition(key, name, dependencies, StringUtils.isBlank(activationProperty) ? key : activationProperty,
+            dependenciesHandler.getAotCompatible());
     }
 
     private String listMapValues(Set<String> items) {
@@ -25,6 +25,7 @@ class DefaultFeatureHandler implements FeatureHandler {
     private static final String CONFIG_IMPLEMENTATION = "implementation";
     private static final String CONFIG_TEST_IMPLEMENTATION = "testImplementation";
     private final Set<DependencyMetadata> dependencies = new HashSet<>();
+    private Boolean aotCompatible;
 
 
     @Override
@@ -181,6 +182,11 @@ class DefaultFeatureHandler implements FeatureHandler {
         dependency(localValues, action);
     }
 
+    @Override
+    public void aotCompatible(boolean compatible) {
+        this.aotCompatible = compatible;
+    }
+
     private void addDependency(String configuration, String group, String name, String version, String versionProperty, Action<DependencyHandler> action) {
         final DefaultDependencyHandler dependencyHandler = new DefaultDependencyHandler();
         // if there is an action, execute the given action...
@@ -209,4 +215,8 @@ class DefaultFeatureHandler implements FeatureHandler {
         return this.dependencies;
     }
 
+    public Boolean getAotCompatible() {
+        return this.aotCompatible;
+    }
+
 }
\ No newline at end of file
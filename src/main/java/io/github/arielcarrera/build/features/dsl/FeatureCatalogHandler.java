@@ -0,0 +1,26 @@
+package io.github.arielcarrera.build.features.dsl;
+
+import io.github.arielcarrera.build.features.dependencies.FeatureRegistry;
+import groovy.lang.Closure;
+
+/**
+ * Target of the feature definition files applied by the settings plugin ('buildFeatures { definitions { ... } }').
+ *
+ * @author Ariel Carrera
+ */
+public class FeatureCatalogHandler {
+
+    private final FeatureRegistry registry;
+
+    public FeatureCatalogHandler(FeatureRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void buildFeatures(Closure<?> closure) {
+        if (closure != null) {
+            closure.setResolveStrategy(Closure.DELEGATE_FIRST);
+            closure.setDelegate(new DefaultFeatureConfigurationHandler(this.registry));
+            closure.call();
+        }
+    }
+}
@@ -63,4 +63,6 @@ public interface FeatureHandler {
     void testImplementation(Map<String, String> values, Closure<?> closure);
 
     void testImplementation(Map<String, String> values, Action<DependencyHandler> action);
+
+    void aotCompatible(boolean compatible);
 }
\ No newline at end of file
@@ -2,8 +2,10 @@ package io.github.arielcarrera.build.features.dsl;
 
 import java.math.BigDecimal;
 
+import org.gradle.api.Action;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.Nested;
 
 public interface SettingsHandler {
 
@@ -19,10 +21,31 @@ public interface SettingsHandler {
 
     Property<String> getArtifactId();
 
+    Property<String> getCompanyGroupPrefix();
+
+    Property<String> getMavenLocalMode();
+
+    Property<Boolean> getRepositoryContentFilteringEnabled();
+
+    Property<Boolean> getRepositoryExclusiveContentEnabled();
+
+    Property<Boolean> getDependencyLockingEnabled();
+
     Property<Boolean> getTestCoverageEnabled();
 
     SetProperty<String> getTestCoverageExclusions();
 
     Property<BigDecimal> getTestCoverageMinimumThreshold();
 
+    Property<String> getTestCoverageMode();
+
+    Property<Boolean> getTestCoverageOfflineInstrumentation();
+
+    @Nested
+    TestingHandler getTesting();
+
+    default void testing(Action<? super TestingHandler> action) {
+        action.execute(getTesting());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package io.github.arielcarrera.build.features.dsl;
+
+import org.gradle.api.provider.Property;
+
+public interface TestingHandler {
+
+    Property<Boolean> getParallelForksEnabled();
+
+    Property<Integer> getMaxParallelForks();
+
+    Property<Long> getForkEvery();
+
+    Property<Boolean> getJunitParallelEnabled();
+
+    Property<Boolean> getImpactSelectionEnabled();
+
+}
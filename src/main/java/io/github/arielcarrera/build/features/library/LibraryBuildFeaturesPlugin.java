@@ -79,4 +79,22 @@ public class LibraryBuildFeaturesPlugin extends BaseBuildFeaturesPlugin<LibraryB
             }
         });
     }
+
+    @Override
+    protected void configurePlatforms() {
+        if (extension.getSettings().getImportSpringBootBom().getOrElse(Boolean.TRUE)) {
+            importPlatform("springBootVersion", "org.springframework.boot", "spring-boot-dependencies",
+                extension.getSettings().getDefaultSpringBootVersion(), "defaultSpringBootVersion",
+                DefaultVersions.KEY_SPRING_BOOT_VERSION);
+        } else {
+            info("Skipping import of spring-boot-dependencies (bom)");
+        }
+        if (extension.getSettings().getImportSpringCloudBomEnabled().getOrElse(Boolean.TRUE)) {
+            importPlatform("springCloudVersion", "org.springframework.cloud", "spring-cloud-dependencies",
+                extension.getSettings().getDefaultSpringCloudVersion(), "defaultSpringCloudVersion",
+                DefaultVersions.KEY_SPRING_CLOUD_VERSION);
+        } else {
+            info("Skipping import of spring-cloud-dependencies (bom)");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package io.github.arielcarrera.build.features.settings;
+
+import org.gradle.api.provider.Property;
+
+/**
+ * Settings plugin extension ('buildFeatures' block of the settings script).
+ *
+ * @author Ariel Carrera
+ */
+public interface BuildFeaturesSettingsExtension {
+
+    String EXTENSION_NAME = "buildFeatures";
+
+    Property<Boolean> getRepositoriesEnabled();
+
+    Property<String> getCompanyGroupPrefix();
+
+    Property<String> getMavenLocalMode();
+
+    Property<Boolean> getRepositoryContentFilteringEnabled();
+
+    Property<Boolean> getRepositoryExclusiveContentEnabled();
+}
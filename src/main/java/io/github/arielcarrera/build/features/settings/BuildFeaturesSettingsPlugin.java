@@ -0,0 +1,65 @@
+package io.github.arielcarrera.build.features.settings;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import io.github.arielcarrera.build.features.BaseBuildFeaturesPlugin;
+import io.github.arielcarrera.build.features.BaseBuildFeaturesPlugin.FeatureScan;
+import io.github.arielcarrera.build.features.FeatureFiles;
+import io.github.arielcarrera.build.features.RepositoryConfigurer;
+import io.github.arielcarrera.build.features.RepositorySettings;
+import io.github.arielcarrera.build.features.dependencies.FeatureCacheService;
+import io.github.arielcarrera.build.features.dependencies.FeatureCatalog;
+
+/**
+ * Main class that implements the Settings Build Features Plugin.
+ * <p>
+ * Loads the feature catalog once for the whole build and declares the repositories in the dependency resolution management
+ * of the settings. The project plugins (boot or library) only apply the feature selection of each project.
+ *
+ * @author Ariel Carrera
+ */
+public class BuildFeaturesSettingsPlugin implements Plugin<Settings> {
+    public static final String PLUGIN_ID = BuildFeaturesSettingsPlugin.class.getPackageName();
+    private static final String FEATURES_PATH = "buildFeatures";
+    protected static final List<FeatureScan> FEATURE_SCAN_LIST = List.of(new FeatureScan(BaseBuildFeaturesPlugin.class, FEATURES_PATH));
+
+    private static final Logger LOGGER = Logging.getLogger(BuildFeaturesSettingsPlugin.class);
+
+    @Override
+    public void apply(Settings settings) {
+        final BuildFeaturesSettingsExtension extension = settings.getExtensions()
+            .create(BuildFeaturesSettingsExtension.EXTENSION_NAME, BuildFeaturesSettingsExtension.class);
+        extension.getRepositoriesEnabled().convention(Boolean.TRUE);
+        extension.getMavenLocalMode().convention(BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_ALL);
+        extension.getRepositoryContentFilteringEnabled().convention(Boolean.FALSE);
+        extension.getRepositoryExclusiveContentEnabled().convention(Boolean.FALSE);
+
+        final String fingerprint = FeatureFiles.fingerprint(FEATURE_SCAN_LIST);
+        final FeatureCatalog catalog = new FeatureCatalog(fingerprint == null ? FeatureFiles.load(settings, FEATURE_SCAN_LIST, LOGGER) :
+            FeatureCacheService.register(settings.getGradle(), settings.getRootDir()).get()
+                .getCatalog(fingerprint, () -> FeatureFiles.load(settings, FEATURE_SCAN_LIST, LOGGER)));
+        settings.getGradle().getExtensions().add(FeatureCatalog.class, FeatureCatalog.EXTENSION_NAME, catalog);
+
+        settings.getGradle().settingsEvaluated(evaluated -> {
+            if (!extension.getRepositoriesEnabled().get()) {
+                LOGGER.lifecycle("Repositories defined by each project");
+                return;
+            }
+            new RepositoryConfigurer(createRepositorySettings(), LOGGER).configure(
+                evaluated.getDependencyResolutionManagement().getRepositories(), new RepositoryConfigurer.Options(
+                    extension.getMavenLocalMode().get(), extension.getCompanyGroupPrefix().getOrNull(),
+                    extension.getRepositoryContentFilteringEnabled().get().booleanValue(),
+                    extension.getRepositoryExclusiveContentEnabled().get().booleanValue()), Collections.emptyList());
+            catalog.setRepositoriesManaged(true);
+        });
+    }
+
+    protected RepositorySettings createRepositorySettings() {
+        return new RepositorySettings();
+    }
+}
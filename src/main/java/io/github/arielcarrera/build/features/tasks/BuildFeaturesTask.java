@@ -1,6 +1,5 @@
 package io.github.arielcarrera.build.features.tasks;
 
-import java.io.File;
 import java.io.IOException;
 
 import org.gradle.api.DefaultTask;
@@ -18,6 +17,7 @@ abstract public class BuildFeaturesTask extends DefaultTask {
     private boolean publish = false;
     private boolean publishToMavenLocal = false;
     private String buildFeaturePath = "";
+    private boolean toolingApi = false;
 
     @Option(option = "publish", description = "Publish BuildFeatures project to remote repository.")
     public void setPublish(boolean publish) {
@@ -34,6 +34,11 @@ abstract public class BuildFeaturesTask extends DefaultTask {
         this.buildFeaturePath = path;
     }
 
+    @Option(option = "toolingApi", description = "Build the BuildFeatures project through the Gradle Tooling API (reused daemon).")
+    public void setToolingApi(boolean toolingApi) {
+        this.toolingApi = toolingApi;
+    }
+
     @Input
     public boolean isPublish() {
         return this.publish;
@@ -44,6 +49,11 @@ abstract public class BuildFeaturesTask extends DefaultTask {
         return this.publishToMavenLocal;
     }
 
+    @Input
+    public boolean isToolingApi() {
+        return this.toolingApi;
+    }
+
     @Input
     @Optional
     public String getBuildFeaturePath() {
@@ -62,20 +72,18 @@ abstract public class BuildFeaturesTask extends DefaultTask {
 
     @TaskAction
     public void buildFeatures() throws IOException {
-        getProject().exec(spec -> {
-            final String path = getBuildFeaturePath();
-            if (StringUtils.isNotBlank(path)) {
-                spec.setWorkingDir(new File(path));
-                final String publishCmd = resolvePublishCommand();
-                if (publishCmd != null) {
-                    spec.commandLine("%s/gradlew".formatted(path), "build", publishCmd);
-                } else {
-                    spec.commandLine("%s/gradlew".formatted(path), "build");
-                }
+        final String path = getBuildFeaturePath();
+        if (StringUtils.isNotBlank(path)) {
+            final FeaturesProjectLauncher launcher = new FeaturesProjectLauncher(getProject(), getLogger());
+            final String publishCmd = resolvePublishCommand();
+            if (publishCmd != null) {
+                launcher.run(path, isToolingApi(), "build", publishCmd);
             } else {
-                getLogger().error("ERROR: Build Features PATH not found. Try using --buildFeaturePath %PATH% or setting the environment variable " + BUILD_FEATURES_REPO_ENV_VAR_NAME);
+                launcher.run(path, isToolingApi(), "build");
             }
-        });
+        } else {
+            getLogger().error("ERROR: Build Features PATH not found. Try using --buildFeaturePath %PATH% or setting the environment variable " + BUILD_FEATURES_REPO_ENV_VAR_NAME);
+        }
     }
 
     private String resolvePublishCommand() {
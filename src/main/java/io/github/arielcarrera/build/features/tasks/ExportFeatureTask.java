@@ -7,17 +7,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.gradle.api.DefaultTask;
 import org.gradle.api.artifacts.Dependency;
@@ -27,17 +25,19 @@ import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.options.Option;
 import io.github.arielcarrera.build.features.dsl.BaseBuildFeaturesExtension;
+import io.github.arielcarrera.build.features.utils.BuildScriptEditor;
 import io.spring.gradle.dependencymanagement.org.apache.commons.lang3.StringUtils;
 
 abstract public class ExportFeatureTask extends DefaultTask {
+    private record DependencyUsage(Dependency dependency, Set<String> configurations) {
+    }
+
     public static final String TASK = "exportFeature";
     public static final String PROPERTIES_FILE_NAME = "features-versions.properties";
     public static final String BUILD_FEATURES_REPO_ENV_VAR_NAME = "BUILD_FEATURES_REPO";
     public static final String RESOURCES_BUILD_FEATURES_DIR_PATH = "/src/main/resources/buildFeatures";
     public static final String RESOURCES_BUILD_FEATURES_PROPERTIES_PATH = "/src/main/resources";
     public static final String RESOURCES_BUILD_FEATURES_PROPERTIES_FILENAME = "build-features-versions.properties";
-    private static final String DEPENDENCIES_CONTENT_PATTERN = "^\\s*dependencies\\s*\\{([.\\n\\s\\w\\(\\)'\\\":\\-_\\/]*)\\}";
-    private static final String SETTINGS_CONTENT_PATTERN = "(^\\s*%s\\s*\\{[.\\n\\s\\w\\(\\)'\\\":\\-_\\/{}=]*features\\s*\\{)([.\\n\\s\\w\\(\\)'\\\":\\-_\\/=]*)(}[.\\n\\s\\w\\(\\)'\\\":\\-_\\/{}=]*})";
 
     private String dependency;
     private String featureName = "";
@@ -45,6 +45,8 @@ abstract public class ExportFeatureTask extends DefaultTask {
     private String property = "";
     private String buildFeaturePath = "";
     private boolean force = false;
+    private boolean toolingApi = false;
+    private String dependenciesFile = "";
 
     @Option(option = "dependency", description = "Request the dependency to export.")
     public void setDependency(String dependency) {
@@ -76,7 +78,18 @@ abstract public class ExportFeatureTask extends DefaultTask {
         this.force = force;
     }
 
+    @Option(option = "file", description = "Request a file listing the dependencies to export, one '[featureName=]dependency' per line.")
+    public void setDependenciesFile(String dependenciesFile) {
+        this.dependenciesFile = dependenciesFile;
+    }
+
+    @Option(option = "toolingApi", description = "Publish the BuildFeatures project through the Gradle Tooling API (reused daemon).")
+    public void setToolingApi(boolean toolingApi) {
+        this.toolingApi = toolingApi;
+    }
+
     @Input
+    @Optional
     public String getDependency() {
         return this.dependency;
     }
@@ -115,6 +128,17 @@ abstract public class ExportFeatureTask extends DefaultTask {
         return this.force;
     }
 
+    @Input
+    public boolean isToolingApi() {
+        return this.toolingApi;
+    }
+
+    @Input
+    @Optional
+    public String getDependenciesFile() {
+        return this.dependenciesFile;
+    }
+
     public ExportFeatureTask() {
         setDescription("This task exports a dependency as a new feature");
         getProject().getLogging().captureStandardOutput(LogLevel.QUIET);
@@ -124,48 +148,94 @@ abstract public class ExportFeatureTask extends DefaultTask {
     public void export() throws IOException {
         final boolean saveToRepository = StringUtils.isNotBlank(getBuildFeaturePath());
 
-        String fName = StringUtils.isBlank(getFeatureName()) ? nameToCamelCase(dependency) : getFeatureName();
-        if (fName.contains(" ")) {
-            getLogger().error("ERROR: Feature name must not contain whitespace character");
+        final Map<String, String> requests = resolveRequests();
+        if (requests.isEmpty()) {
+            getLogger().error("ERROR: A dependency (--dependency) or a dependencies file (--file) is required");
             return;
         }
-        String fDesc = StringUtils.isBlank(getDesc()) ? camelCaseToDesc(fName) : getDesc();
-        final Set<Dependency> dependencies = new HashSet<>();
-        getProject().getConfigurations().all(c -> {
-            Set<Dependency> deps = c.getAllDependencies().stream().filter(item -> item.getName().contains(dependency)).collect(Collectors.toSet());
-            dependencies.addAll(deps);
-        });
-        if (!dependencies.isEmpty()) {
-            Map<String, String> versions = new HashMap<>();
-            String impls = dependencies.stream().map(dep -> {
+        // index of declared dependencies by module, built once for all the requested features
+        final Map<String, DependencyUsage> index = indexDependencies();
+        final ExportRequests.Assignment assignment = ExportRequests.assign(requests, index.keySet());
+        assignment.overlaps().forEach((module, features) -> getLogger().warn(
+            "WARNING: '%s' matches the features %s, it is only exported to '%s'".formatted(module, features, features.get(0))));
+        final Map<String, String> versions = new TreeMap<>();
+        final Map<String, String> contents = new LinkedHashMap<>();
+        final Map<String, Set<Dependency>> exported = new LinkedHashMap<>();
+        requests.forEach((fName, filter) -> {
+            if (fName.contains(" ")) {
+                getLogger().error("ERROR: Feature name must not contain whitespace character: '%s'".formatted(fName));
+                return;
+            }
+            final List<DependencyUsage> usages = assignment.modulesByFeature().get(fName).stream().map(index::get).toList();
+            if (usages.isEmpty()) {
+                getLogger().quiet("No result" + (requests.size() > 1 ? " for '%s'".formatted(filter) : ""));
+                return;
+            }
+            String impls = usages.stream().map(usage -> {
+                    final Dependency dep = usage.dependency();
                     final String version = nameToSnakeCaseVersion(dep.getName());
                     if (StringUtils.isNotBlank(dep.getVersion())) {
                         versions.put(version, dep.getVersion());
                     }
-                    Set<String> configurations = resolveConfiguration(dep);
-                    return configurations.stream().map(cfg -> "    %s('%s:%s:%%%s', '%s')"
+                    return usage.configurations().stream().map(cfg -> "    %s('%s:%s:%%%s', '%s')"
                         .formatted(cfg, dep.getGroup(), dep.getName(), version, nameToCamelCaseVersion(dep.getName())
                         )).collect(Collectors.joining(System.lineSeparator()));
                 }
             ).collect(Collectors.joining(System.lineSeparator()));
-            if (!versions.isEmpty()) {
-                writeProperties(PROPERTIES_FILE_NAME, versions, saveToRepository);
-            }
-            writeFeature(fName, fDesc, impls, saveToRepository);
-            if (saveToRepository) {
-                publishToMavenLocal();
-                updateBuildFile(fName, dependencies);
-            }
-        } else {
-            getLogger().quiet("No result");
+            contents.put(fName, impls);
+            exported.put(fName, usages.stream().map(DependencyUsage::dependency).collect(Collectors.toCollection(LinkedHashSet::new)));
+        });
+        if (contents.isEmpty()) {
+            return;
+        }
+        if (!versions.isEmpty()) {
+            writeProperties(PROPERTIES_FILE_NAME, versions, saveToRepository);
+        }
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            final String fName = entry.getKey();
+            final String fDesc = requests.size() == 1 && StringUtils.isNotBlank(getDesc()) ? getDesc() : camelCaseToDesc(fName);
+            writeFeature(fName, fDesc, entry.getValue(), saveToRepository);
+        }
+        if (saveToRepository) {
+            publishToMavenLocal();
+            updateBuildFile(exported);
         }
     }
 
+    /**
+     * Resolves the features to export and the dependency filter of each one.
+     *
+     * @return map of feature name to dependency filter
+     */
+    private Map<String, String> resolveRequests() throws IOException {
+        final List<String> lines = StringUtils.isNotBlank(getDependenciesFile()) ?
+            Files.readAllLines(getProject().file(getDependenciesFile()).toPath()) : List.of();
+        return ExportRequests.parse(getDependency(), getFeatureName(), lines, this::nameToCamelCase);
+    }
+
+    private Map<String, DependencyUsage> indexDependencies() {
+        final Map<String, DependencyUsage> index = new TreeMap<>();
+        getProject().getConfigurations().forEach(configuration -> {
+            final String name = configuration.getName();
+            if (name.endsWith("Classpath") || name.endsWith("Elements")) {
+                return;
+            }
+            configuration.getDependencies().forEach(dep -> {
+                if (dep.getGroup() != null) {
+                    index.computeIfAbsent(dep.getGroup() + ":" + dep.getName(), key -> new DependencyUsage(dep, new TreeSet<>()))
+                        .configurations().add(name);
+                }
+            });
+        });
+        return index;
+    }
+
     private void publishToMavenLocal() throws IOException {
         PublishFeaturesToMavenLocalTask task = (PublishFeaturesToMavenLocalTask) getProject().getTasks().findByName(PublishFeaturesToMavenLocalTask.TASK);
         if (task != null) {
             getLogger().quiet("Executing Build Features: publishToMavenLocal");
             task.setBuildFeaturePath(getBuildFeaturePath());
+            task.setToolingApi(isToolingApi());
             task.publishFeatures();
         } else {
             getLogger().quiet("Executing Build Features publishToMavenLocal");
@@ -173,59 +243,22 @@ abstract public class ExportFeatureTask extends DefaultTask {
         }
     }
 
-    private Set<String> resolveConfiguration(Dependency dep) {
-        return getProject().getConfigurations().getAsMap().entrySet().stream().filter(entry ->
-                !entry.getKey().endsWith("Classpath") && !entry.getKey().endsWith("Elements"))
-            .filter(entry -> {
-                List<Dependency> matching = entry.getValue().getIncoming().getDependencies().matching(it -> Objects.equals(dep.getGroup(), it.getGroup())
-                    && dep.getName().equals(it.getName())).stream().toList();
-                return !matching.isEmpty();
-            }).map(HashMap.Entry::getKey)
-            .collect(Collectors.toSet());
-    }
-
-    private void updateBuildFile(String featureName, Set<Dependency> dependencies) throws IOException {
+    private void updateBuildFile(Map<String, Set<Dependency>> exported) throws IOException {
         final Path path = getProject().getBuildFile().toPath();
         //backup
         backupFile(path);
         //Read build file
-        String content = Files.readString(path);
+        final String content = Files.readString(path);
+        final BuildScriptEditor editor = new BuildScriptEditor(content, BuildScriptEditor.isKotlinScript(path.getFileName().toString()));
         //remove dependencies
-        content = removeDependency(content, dependencies);
-        content = addFeature(path, content, featureName);
-        writeFile(path, content);
-    }
-
-    private String addFeature(Path path, String content, String fName) {
+        editor.removeDependencies(exported.values().stream().flatMap(Set::stream).map(dep -> dep.getGroup() + ":" + dep.getName())
+            .collect(Collectors.toSet()));
+        //enable features
         final String extensionName = getProject().getExtensions().getByType(BaseBuildFeaturesExtension.class).getExtensionName();
-        final Pattern compile = Pattern.compile(SETTINGS_CONTENT_PATTERN
-            .formatted(extensionName), Pattern.MULTILINE);
-        final Matcher matcher = compile.matcher(content);
-        if (matcher.find() && matcher.groupCount() > 2) {
-            final String section = matcher.group(2);
-            final String[] split = section.split(System.lineSeparator());
-            final boolean exists = Stream.of(split).anyMatch(line ->
-                line.contains("enable \"%s\"".formatted(fName)) ||
-                    line.contains("enable '%s'".formatted(fName)) ||
-                    line.contains("enable(\"%s\")".formatted(fName)) ||
-                    line.contains("enable('%s')".formatted(fName))
-            );
-            if (!exists) {
-                int lastBreak = section.lastIndexOf(System.lineSeparator());
-                int index = -1;
-                if (lastBreak > 0) {
-                    index = section.substring(0, lastBreak).lastIndexOf(System.lineSeparator());
-                }
-                if (index < 0) {
-                    index = 0;
-                }
-                int indentation = calcIndentation(section, index);
-                final String newSectionContent = section.substring(0, lastBreak) + System.lineSeparator() + StringUtils.repeat(" ", --indentation)
-                    + "enable '%s'".formatted(fName) + section.substring(lastBreak);
-                return matcher.replaceAll("$1" + newSectionContent + "$3");
-            }
+        editor.enableFeatures(extensionName, exported.keySet());
+        if (editor.isModified()) {
+            writeFile(path, editor.apply());
         }
-        return content;
     }
 
     private void writeFile(Path path, String newContent) {
@@ -236,25 +269,6 @@ abstract public class ExportFeatureTask extends DefaultTask {
         }
     }
 
-    private String removeDependency(String content, Set<Dependency> dependencies) throws IOException {
-        //replace
-        final Pattern compile = Pattern.compile(DEPENDENCIES_CONTENT_PATTERN, Pattern.MULTILINE);
-        final Matcher matcher = compile.matcher(content);
-        if (matcher.find()) {
-            final String section = matcher.group();
-            final String[] split = section.split(System.lineSeparator());
-            for (Dependency dep : dependencies) {
-                final List<String> result = Stream.of(split).filter(line -> !(line.contains(dep.getGroup() + ":" + dep.getName() + ":")
-                    || line.contains(dep.getGroup() + ":" + dep.getName() + "'")
-                    || line.contains(dep.getGroup() + ":" + dep.getName() + "\""))).toList();
-                if (result.size() < split.length) {
-                    return matcher.replaceAll(String.join(System.lineSeparator(), result) + System.lineSeparator());
-                }
-            }
-        }
-        return content;
-    }
-
     private void writeProperties(String fName, Map<String, String> versions, boolean promoteToBuildFeaturesRepo) throws IOException {
         final String propertiesContent = versions.entrySet().stream().map(entry ->
             "%s=%s".formatted(entry.getKey(), entry.getValue())
@@ -451,17 +465,4 @@ abstract public class ExportFeatureTask extends DefaultTask {
 
         return stringBuilder.toString();
     }
-
-    private static int calcIndentation(String str, int startIndex) {
-        int whitespaceCount = 0;
-        for (int i = startIndex; i < str.length(); i++) {
-            if (Character.isWhitespace(str.charAt(i))) {
-                whitespaceCount++;
-            } else {
-                return whitespaceCount;
-            }
-        }
-        return whitespaceCount;
-    }
 }
-
@@ -0,0 +1,103 @@
+package io.github.arielcarrera.build.features.tasks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+import org.gradle.api.InvalidUserDataException;
+
+/**
+ * Features requested to the export feature task and the dependencies matched by each one.
+ *
+ * @author Ariel Carrera
+ */
+final class ExportRequests {
+
+    /**
+     * Dependencies assigned to each feature.
+     *
+     * @param modulesByFeature the matched modules ('group:name') by feature name, in request order
+     * @param overlaps         the modules matched by several features and the features that matched them; the module is
+     *                         only assigned to the first one
+     */
+    record Assignment(Map<String, List<String>> modulesByFeature, Map<String, List<String>> overlaps) {
+    }
+
+    private ExportRequests() {
+    }
+
+    /**
+     * Parses the requests.
+     *
+     * @param dependency  the dependency filter of the single export mode (--dependency), may be blank
+     * @param featureName the feature name of the single export mode (--name), may be blank
+     * @param lines       the lines of the dependencies file (--file), '[featureName=]filter' or comments
+     * @param defaultName the default feature name of a filter
+     * @return map of feature name to dependency filter, in request order
+     */
+    static Map<String, String> parse(String dependency, String featureName, List<String> lines, UnaryOperator<String> defaultName) {
+        final Map<String, String> requests = new LinkedHashMap<>();
+        if (dependency != null && !dependency.isBlank()) {
+            requests.put(featureName == null || featureName.isBlank() ? defaultName.apply(dependency) : featureName, dependency);
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            final String value = lines.get(i).trim();
+            if (value.isEmpty() || value.startsWith("#")) {
+                continue;
+            }
+            final int separator = value.indexOf('=');
+            final String name = separator > 0 ? value.substring(0, separator).trim() : defaultName.apply(value);
+            final String filter = separator > 0 ? value.substring(separator + 1).trim() : value;
+            if (filter.isEmpty()) {
+                throw new InvalidUserDataException("Empty dependency filter at line %d".formatted(i + 1));
+            }
+            if (requests.putIfAbsent(name, filter) != null) {
+                throw new InvalidUserDataException("Feature '%s' requested more than once at line %d".formatted(name, i + 1));
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * A filter matches the dependency name when it is contained in it, or the dependency 'group:name' when the filter is a
+     * regular expression enclosed in slashes.
+     */
+    static boolean matches(String group, String name, String filter) {
+        if (filter.length() > 2 && filter.startsWith("/") && filter.endsWith("/")) {
+            return Pattern.compile(filter.substring(1, filter.length() - 1)).matcher(group + ":" + name).find();
+        }
+        return name.contains(filter);
+    }
+
+    /**
+     * Assigns the modules to the requested features, a module matched by several filters is assigned to the first one.
+     *
+     * @param requests the feature name to dependency filter map
+     * @param modules  the declared modules ('group:name')
+     * @return the assignment
+     */
+    static Assignment assign(Map<String, String> requests, Collection<String> modules) {
+        final Map<String, List<String>> modulesByFeature = new LinkedHashMap<>();
+        requests.keySet().forEach(name -> modulesByFeature.put(name, new ArrayList<>()));
+        final Map<String, List<String>> overlaps = new TreeMap<>();
+        for (String module : modules) {
+            final int separator = module.indexOf(':');
+            final String group = module.substring(0, separator);
+            final String name = module.substring(separator + 1);
+            final List<String> matched = requests.entrySet().stream().filter(request -> matches(group, name, request.getValue()))
+                .map(Map.Entry::getKey).toList();
+            if (!matched.isEmpty()) {
+                modulesByFeature.get(matched.get(0)).add(module);
+            }
+            if (matched.size() > 1) {
+                overlaps.put(module, matched);
+            }
+        }
+        return new Assignment(modulesByFeature, overlaps);
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.arielcarrera.build.features.tasks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.tooling.GradleConnectionException;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+import org.gradle.tooling.events.OperationType;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+
+/**
+ * Launcher of builds in the Build Features project.
+ * <p>
+ * By default, the gradle wrapper of the Build Features project is forked. When the Tooling API mode is requested, the build is
+ * driven in-process through a Gradle daemon that is reused between invocations, and its output is forwarded to the task
+ * logger (standard output at lifecycle level, standard error at error level).
+ *
+ * @author Ariel Carrera
+ */
+class FeaturesProjectLauncher {
+
+    private final Project project;
+    private final Logger logger;
+
+    FeaturesProjectLauncher(Project project, Logger logger) {
+        this.project = project;
+        this.logger = logger;
+    }
+
+    /**
+     * Runs the given tasks in the Build Features project.
+     *
+     * @param path       location of the Build Features project
+     * @param toolingApi use the Tooling API instead of forking the gradle wrapper
+     * @param tasks      tasks to execute
+     */
+    void run(String path, boolean toolingApi, String... tasks) {
+        if (toolingApi) {
+            runWithToolingApi(path, tasks);
+        } else {
+            runWithWrapper(path, tasks);
+        }
+    }
+
+    private void runWithWrapper(String path, String... tasks) {
+        project.exec(spec -> {
+            spec.setWorkingDir(new File(path));
+            final String[] commandLine = new String[tasks.length + 1];
+            commandLine[0] = "%s/gradlew".formatted(path);
+            System.arraycopy(tasks, 0, commandLine, 1, tasks.length);
+            spec.commandLine((Object[]) commandLine);
+        });
+    }
+
+    private void runWithToolingApi(String path, String... tasks) {
+        logger.lifecycle("Running '%s' in %s (Tooling API)".formatted(String.join(" ", tasks), path));
+        final GradleConnector connector = GradleConnector.newConnector().forProjectDirectory(new File(path));
+        try (ProjectConnection connection = connector.connect();
+             LoggerOutputStream output = new LoggerOutputStream(logger, LogLevel.LIFECYCLE);
+             LoggerOutputStream error = new LoggerOutputStream(logger, LogLevel.ERROR)) {
+            connection.newBuild()
+                .forTasks(tasks)
+                .setStandardOutput(output)
+                .setStandardError(error)
+                .addProgressListener(event -> {
+                    if (event instanceof TaskFinishEvent) {
+                        logger.lifecycle("> " + event.getDisplayName());
+                    }
+                }, OperationType.TASK)
+                .run();
+        } catch (GradleConnectionException e) {
+            throw new GradleException("Build Features project build failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Output stream that logs every line written to it, so the nested build output respects the log level of the build.
+     */
+    static class LoggerOutputStream extends OutputStream {
+        private final Logger logger;
+        private final LogLevel level;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        LoggerOutputStream(Logger logger, LogLevel level) {
+            this.logger = logger;
+            this.level = level;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (b == '\n') {
+                flushLine();
+            } else if (b != '\r') {
+                line.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (line.size() > 0) {
+                flushLine();
+            }
+        }
+
+        private void flushLine() {
+            logger.log(level, line.toString(Charset.defaultCharset()));
+            line.reset();
+        }
+    }
+}
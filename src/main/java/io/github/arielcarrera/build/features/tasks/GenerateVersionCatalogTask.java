@@ -0,0 +1,39 @@
+package io.github.arielcarrera.build.features.tasks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Task that generates a Gradle version catalog (libs.versions.toml) with a bundle per feature.
+ *
+ * @author Ariel Carrera
+ */
+abstract public class GenerateVersionCatalogTask extends DefaultTask {
+    public static final String TASK = "generateVersionCatalog";
+
+    @Input
+    abstract public Property<String> getCatalog();
+
+    @OutputFile
+    abstract public RegularFileProperty getOutputFile();
+
+    public GenerateVersionCatalogTask() {
+        setDescription("This task generates a Gradle version catalog with a bundle per feature");
+    }
+
+    @TaskAction
+    public void generate() throws IOException {
+        final Path outputFile = getOutputFile().get().getAsFile().toPath();
+        Files.createDirectories(outputFile.getParent());
+        Files.writeString(outputFile, getCatalog().get());
+        getLogger().lifecycle("Version catalog generated: " + outputFile);
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.arielcarrera.build.features.tasks;
+
+import java.io.File;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.TaskAction;
+
+import groovy.lang.Closure;
+
+/**
+ * Task that instruments the compiled classes with Jacoco (offline instrumentation).
+ * <p>
+ * The instrumented classes are a cacheable output, so the classes are only instrumented again when they change, and the
+ * tests run without the Jacoco agent.
+ *
+ * @author Ariel Carrera
+ */
+@CacheableTask
+abstract public class InstrumentClassesTask extends DefaultTask {
+    public static final String TASK = "instrumentClasses";
+
+    @Classpath
+    abstract public ConfigurableFileCollection getJacocoClasspath();
+
+    @Classpath
+    abstract public ConfigurableFileCollection getClassesDirs();
+
+    @OutputDirectory
+    abstract public DirectoryProperty getOutputDir();
+
+    @Inject
+    abstract protected FileSystemOperations getFileSystemOperations();
+
+    public InstrumentClassesTask() {
+        setDescription("This task instruments the compiled classes for the test coverage");
+    }
+
+    @TaskAction
+    public void instrument() {
+        final File outputDir = getOutputDir().get().getAsFile();
+        getFileSystemOperations().delete(spec -> spec.delete(outputDir));
+        getAnt().invokeMethod("taskdef", Map.of("name", "jacocoInstrument", "classname", "org.jacoco.ant.InstrumentTask",
+            "classpath", getJacocoClasspath().getAsPath()));
+        getAnt().invokeMethod("jacocoInstrument", new Object[] { Map.of("destdir", outputDir), new Closure<Object>(this) {
+            @SuppressWarnings("unused")
+            public Object doCall() {
+                getClassesDirs().getFiles().stream().filter(File::isDirectory).forEach(dir ->
+                    getAnt().invokeMethod("fileset", Map.of("dir", dir)));
+                return null;
+            }
+        }});
+    }
+}
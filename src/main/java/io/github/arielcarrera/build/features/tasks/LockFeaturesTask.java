@@ -0,0 +1,45 @@
+package io.github.arielcarrera.build.features.tasks;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Task that resolves the configurations with dependency locking and writes their lockfiles.
+ * <p>
+ * The lock state is written by Gradle when the configurations are resolved in write mode, so the task has to be run with
+ * --write-locks.
+ *
+ * @author Ariel Carrera
+ */
+abstract public class LockFeaturesTask extends DefaultTask {
+    public static final String TASK = "lockFeatures";
+
+    @Internal
+    abstract public SetProperty<String> getLockedConfigurations();
+
+    public LockFeaturesTask() {
+        setDescription("This task writes the dependency lockfiles of the configurations populated by the features");
+        notCompatibleWithConfigurationCache("Resolves the configurations at execution time");
+    }
+
+    @TaskAction
+    public void lock() {
+        if (!getProject().getGradle().getStartParameter().isWriteDependencyLocks()) {
+            throw new GradleException("The dependency locks are only written in write mode, run 'gradle " + TASK + " --write-locks'");
+        }
+        if (getLockedConfigurations().get().isEmpty()) {
+            getLogger().warn("Dependency locking is disabled, enable it with the setting 'dependencyLockingEnabled'");
+            return;
+        }
+        for (String name : getLockedConfigurations().get()) {
+            final Configuration configuration = getProject().getConfigurations().getByName(name);
+            configuration.resolve();
+            getLogger().lifecycle("Locked configuration " + name);
+        }
+        getLogger().lifecycle("Lockfile written to " + getProject().file("gradle.lockfile"));
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.arielcarrera.build.features.tasks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
+import io.github.arielcarrera.build.features.dependencies.DependencyMetadata;
+import io.github.arielcarrera.build.features.dependencies.Feature;
+import io.github.arielcarrera.build.features.dependencies.FeatureCoverage;
+import io.github.arielcarrera.build.features.utils.BuildScriptEditor;
+
+/**
+ * Task that migrates the hand-written dependencies of the project to the existing features.
+ * <p>
+ * It is registered in every project that applies the plugin, so running it from the root directory migrates every project
+ * of the build. The dependencies and the feature definitions are captured at configuration time.
+ *
+ * @author Ariel Carrera
+ */
+abstract public class MigrateFeaturesTask extends DefaultTask {
+    public static final String TASK = "migrateFeatures";
+    public static final String REPORT_PATH = "reports/buildFeatures/migration.txt";
+
+    private boolean dryRun = false;
+
+    @Option(option = "dryRun", description = "Only report the proposed features without rewriting the build files.")
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    @Input
+    public boolean isDryRun() {
+        return this.dryRun;
+    }
+
+    @Input
+    abstract public Property<String> getProjectPath();
+
+    /**
+     * The build file, rewritten by the task (not tracked as an input).
+     */
+    @Internal
+    abstract public RegularFileProperty getBuildFile();
+
+    @Input
+    abstract public Property<String> getExtensionName();
+
+    /**
+     * Keys of the dependencies declared in the build file (see {@link FeatureCoverage#key(String, String, String)}).
+     */
+    @Input
+    abstract public SetProperty<String> getDeclaredDependencies();
+
+    /**
+     * Keys of the unconditional dependencies of each candidate feature, by feature key.
+     */
+    @Input
+    abstract public MapProperty<String, Set<String>> getCandidates();
+
+    @OutputFile
+    abstract public RegularFileProperty getReportFile();
+
+    public MigrateFeaturesTask() {
+        setDescription("This task proposes the features covering the dependencies of the project and rewrites the build file");
+        getProject().getLogging().captureStandardOutput(LogLevel.QUIET);
+        getOutputs().upToDateWhen(task -> false);
+        onlyIf(task -> getBuildFile().get().getAsFile().exists());
+    }
+
+    /**
+     * Collects the dependencies declared in the build file of a project.
+     *
+     * @param project the project
+     * @param enabled the enabled features (their dependencies are not declared in the build file)
+     * @return the dependency keys
+     */
+    public static Set<String> declaredDependencies(Project project, List<Feature> enabled) {
+        final Set<String> contributed = enabled.stream().flatMap(feature -> feature.dependencies().stream())
+            .map(dep -> FeatureCoverage.key(dep.configuration(), dep.group(), dep.name())).collect(Collectors.toSet());
+        final Set<String> declared = new HashSet<>();
+        project.getConfigurations().forEach(configuration ->
+            configuration.getDependencies().withType(ExternalModuleDependency.class).forEach(dep -> {
+                final String key = FeatureCoverage.key(configuration.getName(), dep.getGroup(), dep.getName());
+                if (!contributed.contains(key)) {
+                    declared.add(key);
+                }
+            })
+        );
+        return declared;
+    }
+
+    /**
+     * Collects the candidate features.
+     *
+     * @param definitions the feature definitions
+     * @param enabled     the enabled features
+     * @return the keys of the unconditional dependencies of each candidate feature, by feature key
+     */
+    public static Map<String, Set<String>> candidates(List<Feature> definitions, List<Feature> enabled) {
+        final Map<String, Set<String>> candidates = new TreeMap<>();
+        definitions.stream().filter(feature -> !enabled.contains(feature)).forEach(feature ->
+            candidates.put(feature.key(), feature.dependencies().stream().filter(dep -> dep.activationCondition() == null)
+                .map(dep -> FeatureCoverage.key(dep.configuration(), dep.group(), dep.name())).collect(Collectors.toSet())));
+        return candidates;
+    }
+
+    @TaskAction
+    public void migrate() throws IOException {
+        // only the unconditional dependencies of the candidates are used by the coverage
+        final List<Feature> candidates = getCandidates().get().entrySet().stream().map(entry -> new Feature(entry.getKey(), entry.getKey(),
+            entry.getValue().stream().map(MigrateFeaturesTask::dependency).collect(Collectors.toSet()), null)).toList();
+        final FeatureCoverage.Result coverage = FeatureCoverage.compute(getDeclaredDependencies().get(), candidates);
+        if (!isDryRun()) {
+            rewrite(coverage);
+        }
+        writeReport(coverage);
+    }
+
+    private void rewrite(FeatureCoverage.Result coverage) throws IOException {
+        if (coverage.features().isEmpty()) {
+            return;
+        }
+        final Path path = getBuildFile().get().getAsFile().toPath();
+        final BuildScriptEditor editor = new BuildScriptEditor(Files.readString(path),
+            BuildScriptEditor.isKotlinScript(path.getFileName().toString()));
+        // keys have the form 'configuration:group:name', a module is removed only if it is not left in other configuration
+        final Set<String> leftModules = coverage.leftovers().stream().map(MigrateFeaturesTask::module).collect(Collectors.toSet());
+        editor.removeDependencies(coverage.covered().stream().map(MigrateFeaturesTask::module)
+            .filter(module -> !leftModules.contains(module)).collect(Collectors.toSet()));
+        editor.enableFeatures(getExtensionName().get(), coverage.features().stream().map(Feature::key).toList());
+        if (editor.isModified()) {
+            Files.copy(path, path.resolveSibling(path.getFileName() + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+            Files.writeString(path, editor.apply());
+        }
+    }
+
+    private static DependencyMetadata dependency(String key) {
+        final String[] parts = key.split(":", 3);
+        return new DependencyMetadata(parts[0], parts[1], parts[2], null, null, Set.of(), null);
+    }
+
+    private static String module(String key) {
+        return key.substring(key.indexOf(':') + 1);
+    }
+
+    private void writeReport(FeatureCoverage.Result coverage) throws IOException {
+        final StringBuilder report = new StringBuilder();
+        report.append("Project '").append(getProjectPath().get()).append("'").append(System.lineSeparator());
+        report.append("  features : ").append(coverage.features().stream().map(Feature::key).toList()).append(System.lineSeparator());
+        report.append("  covered  : ").append(coverage.covered().size()).append(" dependencies").append(System.lineSeparator());
+        coverage.leftovers().forEach(leftover -> report.append("  leftover : ").append(leftover).append(System.lineSeparator()));
+        getLogger().quiet(report.toString());
+        final Path reportPath = getReportFile().get().getAsFile().toPath();
+        Files.createDirectories(reportPath.getParent());
+        Files.writeString(reportPath, report.toString());
+        getLogger().quiet("Migration report: " + reportPath + (isDryRun() ? " (dry run, build file not modified)" : ""));
+    }
+}
@@ -1,6 +1,5 @@
 package io.github.arielcarrera.build.features.tasks;
 
-import java.io.File;
 import java.io.IOException;
 
 import org.gradle.api.DefaultTask;
@@ -15,12 +14,23 @@ abstract public class PublishFeaturesTask extends DefaultTask {
     public static final String TASK = "publishFeatures";
     public static final String BUILD_FEATURES_REPO_ENV_VAR_NAME = "BUILD_FEATURES_REPO";
     private String buildFeaturePath = "";
+    private boolean toolingApi = false;
 
     @Option(option = "path", description = "Request the path of the build feature project.")
     public void setBuildFeaturePath(String path) {
         this.buildFeaturePath = path;
     }
 
+    @Option(option = "toolingApi", description = "Build the BuildFeatures project through the Gradle Tooling API (reused daemon).")
+    public void setToolingApi(boolean toolingApi) {
+        this.toolingApi = toolingApi;
+    }
+
+    @Input
+    public boolean isToolingApi() {
+        return this.toolingApi;
+    }
+
     @Input
     @Optional
     public String getBuildFeaturePath() {
@@ -39,16 +49,11 @@ abstract public class PublishFeaturesTask extends DefaultTask {
 
     @TaskAction
     public void publishFeatures() throws IOException {
-        getProject().exec(spec -> {
-            final String path = getBuildFeaturePath();
-            if (StringUtils.isNotBlank(path)) {
-                spec.setWorkingDir(new File(path));
-                spec.commandLine("%s/gradlew".formatted(path), "build", "publish");
-            } else {
-                getLogger().error("ERROR: Build Features PATH not found. Try using --buildFeaturePath %PATH% or setting the environment variable " + BUILD_FEATURES_REPO_ENV_VAR_NAME);
-            }
-        });
-
+        final String path = getBuildFeaturePath();
+        if (StringUtils.isNotBlank(path)) {
+            new FeaturesProjectLauncher(getProject(), getLogger()).run(path, isToolingApi(), "build", "publish");
+        } else {
+            getLogger().error("ERROR: Build Features PATH not found. Try using --buildFeaturePath %PATH% or setting the environment variable " + BUILD_FEATURES_REPO_ENV_VAR_NAME);
+        }
     }
 }
-
@@ -0,0 +1,152 @@
+package io.github.arielcarrera.build.features.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import io.github.arielcarrera.build.features.testing.TestImpactAnalysis;
+import io.github.arielcarrera.build.features.testing.TestImpactAnalysis.Baseline;
+import io.github.arielcarrera.build.features.testing.TestImpactAnalysis.ClassInfo;
+
+/**
+ * Task that selects the tests impacted by the changes since the last successful test execution.
+ * <p>
+ * The classes and the test runtime classpath are inputs of the task, so the selection is only computed again when they or
+ * the baseline change.
+ *
+ * @author Ariel Carrera
+ */
+@CacheableTask
+abstract public class TestImpactTask extends DefaultTask {
+    public static final String TASK = "testImpact";
+    public static final String FULL_SUITE = "*";
+
+    @Classpath
+    abstract public ConfigurableFileCollection getMainClasses();
+
+    @Classpath
+    abstract public ConfigurableFileCollection getTestClasses();
+
+    @Classpath
+    abstract public ConfigurableFileCollection getRuntimeClasspath();
+
+    /**
+     * The baseline of the last successful test execution (updated by the test task).
+     */
+    @Optional
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    abstract public RegularFileProperty getBaselineFile();
+
+    /**
+     * The current baseline, copied to the baseline file when the tests pass.
+     */
+    @OutputFile
+    abstract public RegularFileProperty getPendingBaselineFile();
+
+    @OutputFile
+    abstract public RegularFileProperty getSelectionFile();
+
+    public TestImpactTask() {
+        setDescription("This task selects the tests impacted by the changes since the last successful test execution");
+    }
+
+    @TaskAction
+    public void select() throws IOException {
+        final Baseline current = TestImpactAnalysis.analyze(readClasses(getMainClasses().getFiles()), readClasses(getTestClasses().getFiles()),
+            hashClasspath());
+        final File baselineFile = getBaselineFile().getAsFile().getOrNull();
+        final Baseline previous = baselineFile != null && baselineFile.isFile() ? Baseline.read(baselineFile.toPath()) : null;
+        final Set<String> selected = TestImpactAnalysis.select(previous, current);
+        current.write(getPendingBaselineFile().get().getAsFile().toPath());
+        final Path selectionFile = getSelectionFile().get().getAsFile().toPath();
+        Files.createDirectories(selectionFile.getParent());
+        if (selected == null) {
+            getLogger().lifecycle(previous == null ? "No test impact baseline, running all the tests" :
+                "Test runtime classpath changed, running all the tests");
+            Files.write(selectionFile, List.of(FULL_SUITE), StandardCharsets.UTF_8);
+        } else {
+            getLogger().lifecycle("Running " + selected.size() + " of " + current.testDependencies().size() + " test classes impacted by the changes");
+            Files.write(selectionFile, selected, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, ClassInfo> readClasses(Set<File> directories) throws IOException {
+        final Map<String, ClassInfo> classes = new TreeMap<>();
+        for (File directory : directories) {
+            if (!directory.isDirectory()) {
+                continue;
+            }
+            final Path root = directory.toPath();
+            try (Stream<Path> files = Files.walk(root)) {
+                files.filter(file -> file.getFileName().toString().endsWith(".class")).forEach(file -> {
+                    final String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+                    try {
+                        classes.put(relative.substring(0, relative.length() - 6), ClassInfo.of(Files.readAllBytes(file)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Hashes the libraries and resources of the test runtime classpath. The jar files are identified by their path, size and
+     * modification time (the content of the dependency cache is immutable), only the resource directories are read.
+     */
+    private String hashClasspath() throws IOException {
+        final Set<File> classDirectories = getMainClasses().plus(getTestClasses()).getFiles();
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        for (File entry : getRuntimeClasspath().getFiles()) {
+            if (classDirectories.contains(entry) || !entry.exists()) {
+                continue;
+            }
+            if (entry.isFile()) {
+                digest.update((entry.getAbsolutePath() + ":" + entry.length() + ":" + entry.lastModified()).getBytes(StandardCharsets.UTF_8));
+                continue;
+            }
+            final Path root = entry.toPath();
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                    digest.update((entry.getName() + "/" + root.relativize(file)).getBytes(StandardCharsets.UTF_8));
+                    try (InputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+                        input.transferTo(OutputStream.nullOutputStream());
+                    }
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.arielcarrera.build.features.testing;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Test impact analysis based on the class references of the compiled classes.
+ * <p>
+ * The references of every class are read from its constant pool, and the dependencies of a test class are the classes
+ * transitively reachable from it (including its inner classes). Comparing a baseline with the current classes selects only
+ * the tests that reach a changed, added or removed class. A change of the libraries or resources (classpath hash) or a
+ * missing baseline selects the full suite.
+ * <p>
+ * The classes loaded by a Spring application context (component scanning, imports, reflection) are not referenced by the
+ * tests, so the tests that load a context (they reach a Spring test annotation, e.g. SpringBootTest, WebMvcTest or
+ * ContextConfiguration) are selected whenever a class changes.
+ *
+ * @author Ariel Carrera
+ */
+public final class TestImpactAnalysis {
+
+    /**
+     * Hash and referenced classes (internal names) of a class file.
+     *
+     * @param hash       the hash of the class file
+     * @param references the classes referenced by the class
+     */
+    public record ClassInfo(String hash, Set<String> references) {
+
+        public static ClassInfo of(byte[] classFile) {
+            return new ClassInfo(TestImpactAnalysis.hash(classFile), TestImpactAnalysis.references(classFile));
+        }
+    }
+
+    /**
+     * State of the classes when the tests were executed.
+     *
+     * @param classpathHash    the hash of the libraries and resources of the test runtime classpath
+     * @param classHashes      the hash of each class (main and test classes) by internal name
+     * @param testDependencies the classes reachable from each top level test class
+     * @param contextTests     the top level test classes that load a Spring application context
+     */
+    public record Baseline(String classpathHash, Map<String, String> classHashes, Map<String, Set<String>> testDependencies,
+                           Set<String> contextTests) {
+
+        public static Baseline read(Path file) throws IOException {
+            String classpathHash = null;
+            final Map<String, String> classHashes = new TreeMap<>();
+            final Map<String, Set<String>> testDependencies = new TreeMap<>();
+            final Set<String> contextTests = new TreeSet<>();
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                final String[] tokens = line.split(" ");
+                switch (tokens[0]) {
+                    case "classpath" -> classpathHash = tokens[1];
+                    case "class" -> classHashes.put(tokens[1], tokens[2]);
+                    case "test" -> testDependencies.put(tokens[1], new TreeSet<>(List.of(tokens).subList(2, tokens.length)));
+                    case "context" -> contextTests.add(tokens[1]);
+                    default -> {
+                    }
+                }
+            }
+            return new Baseline(classpathHash, classHashes, testDependencies, contextTests);
+        }
+
+        public void write(Path file) throws IOException {
+            final List<String> lines = new ArrayList<>();
+            lines.add("classpath " + classpathHash);
+            classHashes.forEach((name, hash) -> lines.add("class " + name + " " + hash));
+            testDependencies.forEach((test, dependencies) -> lines.add("test " + test + (dependencies.isEmpty() ? "" : " " + String.join(" ", dependencies))));
+            contextTests.forEach(test -> lines.add("context " + test));
+            Files.createDirectories(file.getParent());
+            Files.write(file, lines, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Packages of the Spring test annotations that load an application context.
+     */
+    private static final List<String> CONTEXT_ANNOTATION_PACKAGES = List.of("org/springframework/test/context/",
+        "org/springframework/boot/test/context/", "org/springframework/boot/test/autoconfigure/");
+
+    private TestImpactAnalysis() {
+    }
+
+    /**
+     * Analyzes the current classes.
+     *
+     * @param mainClasses   the main classes by internal name
+     * @param testClasses   the test classes by internal name
+     * @param classpathHash the hash of the libraries and resources of the test runtime classpath
+     * @return the current baseline
+     */
+    public static Baseline analyze(Map<String, ClassInfo> mainClasses, Map<String, ClassInfo> testClasses, String classpathHash) {
+        final Map<String, ClassInfo> classes = new TreeMap<>(mainClasses);
+        classes.putAll(testClasses);
+        final Map<String, String> classHashes = new TreeMap<>();
+        classes.forEach((name, info) -> classHashes.put(name, info.hash()));
+        final Map<String, Set<String>> testDependencies = new TreeMap<>();
+        testClasses.keySet().forEach(name -> testDependencies.computeIfAbsent(topLevel(name), key -> new TreeSet<>()).add(name));
+        testDependencies.replaceAll((test, roots) -> reachable(roots, classes));
+        // the reachable classes include the meta-annotations declared in the project
+        final Set<String> contextTests = new TreeSet<>();
+        testDependencies.forEach((test, dependencies) -> {
+            if (dependencies.stream().map(classes::get).filter(Objects::nonNull).flatMap(info -> info.references().stream())
+                .anyMatch(reference -> CONTEXT_ANNOTATION_PACKAGES.stream().anyMatch(reference::startsWith))) {
+                contextTests.add(test);
+            }
+        });
+        return new Baseline(classpathHash, classHashes, testDependencies, contextTests);
+    }
+
+    /**
+     * Selects the tests impacted by the changes since the baseline, and the tests that load an application context if
+     * a class changed.
+     *
+     * @param previous the baseline of the last successful execution, may be null
+     * @param current  the current baseline
+     * @return the binary names of the impacted test classes, or null if the full suite has to be executed
+     */
+    public static Set<String> select(Baseline previous, Baseline current) {
+        if (previous == null || !Objects.equals(previous.classpathHash(), current.classpathHash())) {
+            return null;
+        }
+        final Set<String> changed = new HashSet<>();
+        current.classHashes().forEach((name, hash) -> {
+            if (!hash.equals(previous.classHashes().get(name))) {
+                changed.add(name);
+            }
+        });
+        previous.classHashes().keySet().stream().filter(name -> !current.classHashes().containsKey(name)).forEach(changed::add);
+        final Set<String> selected = new TreeSet<>();
+        current.testDependencies().forEach((test, dependencies) -> {
+            final Set<String> previousDependencies = previous.testDependencies().get(test);
+            if (previousDependencies == null || dependencies.stream().anyMatch(changed::contains) ||
+                previousDependencies.stream().anyMatch(changed::contains) || (!changed.isEmpty() && current.contextTests().contains(test))) {
+                selected.add(test.replace('/', '.'));
+            }
+        });
+        return selected;
+    }
+
+    /**
+     * Reads the classes referenced from the constant pool of a class file (class entries and type descriptors).
+     *
+     * @param classFile the content of the class file
+     * @return the internal names of the referenced classes
+     */
+    public static Set<String> references(byte[] classFile) {
+        final List<Integer> classNameIndexes = new ArrayList<>();
+        final Set<String> references = new TreeSet<>();
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(classFile))) {
+            if (input.readInt() != 0xCAFEBABE) {
+                return Collections.emptySet();
+            }
+            input.readUnsignedShort();
+            input.readUnsignedShort();
+            final int count = input.readUnsignedShort();
+            final String[] utf8 = new String[count];
+            for (int index = 1; index < count; index++) {
+                final int tag = input.readUnsignedByte();
+                switch (tag) {
+                    case 1 -> utf8[index] = input.readUTF();
+                    case 7 -> classNameIndexes.add(input.readUnsignedShort());
+                    case 8, 16, 19, 20 -> input.skipBytes(2);
+                    case 15 -> input.skipBytes(3);
+                    case 3, 4, 9, 10, 11, 12, 17, 18 -> input.skipBytes(4);
+                    case 5, 6 -> {
+                        input.skipBytes(8);
+                        index++;
+                    }
+                    default -> throw new IOException("Unsupported constant pool tag " + tag);
+                }
+            }
+            for (int index : classNameIndexes) {
+                final String name = utf8[index];
+                if (name != null) {
+                    addDescriptorTypes(name.startsWith("[") ? name : "L" + name + ";", references);
+                }
+            }
+            // field, method and generic signatures, annotations
+            for (String value : utf8) {
+                if (value != null && value.indexOf('L') >= 0 && value.indexOf(';') > 0) {
+                    addDescriptorTypes(value, references);
+                }
+            }
+        } catch (IOException e) {
+            // not a valid class file, the class is not analyzed
+            return Collections.emptySet();
+        }
+        return references;
+    }
+
+    private static void addDescriptorTypes(String descriptor, Set<String> references) {
+        int start = descriptor.indexOf('L');
+        while (start >= 0) {
+            final int end = descriptor.indexOf(';', start);
+            if (end < 0) {
+                return;
+            }
+            final String name = descriptor.substring(start + 1, end);
+            // generic signatures: Lcom/example/Foo<Lcom/example/Bar;>;
+            final int generic = name.indexOf('<');
+            references.add(generic >= 0 ? name.substring(0, generic) : name);
+            start = descriptor.indexOf('L', generic >= 0 ? start + 1 + generic + 1 : end + 1);
+        }
+    }
+
+    private static Set<String> reachable(Set<String> roots, Map<String, ClassInfo> classes) {
+        final Set<String> visited = new TreeSet<>(roots);
+        final Deque<String> pending = new ArrayDeque<>(roots);
+        while (!pending.isEmpty()) {
+            final ClassInfo info = classes.get(pending.poll());
+            if (info == null) {
+                continue;
+            }
+            for (String reference : info.references()) {
+                if (classes.containsKey(reference) && visited.add(reference)) {
+                    pending.add(reference);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private static String topLevel(String name) {
+        final int inner = name.indexOf('$');
+        return inner >= 0 ? name.substring(0, inner) : name;
+    }
+
+    static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.arielcarrera.build.features.testing;
+
+import org.gradle.api.InvalidUserDataException;
+
+/**
+ * Test shard of a test suite split across several CI agents.
+ * <p>
+ * Each test class is assigned to a shard by the hash of its name, so every agent selects the same classes without any
+ * coordination. Inner classes are assigned to the shard of their outer class.
+ *
+ * @param index the shard number (1 based)
+ * @param total the number of shards
+ * @author Ariel Carrera
+ */
+public record TestShard(int index, int total) {
+
+    public static final String PROPERTY = "testShard";
+
+    public TestShard {
+        if (total < 1 || index < 1 || index > total) {
+            throw new InvalidUserDataException("Invalid test shard '" + index + "/" + total + "', expected 'i/n' with 1 <= i <= n");
+        }
+    }
+
+    /**
+     * Parses a test shard.
+     *
+     * @param value the test shard with the format 'i/n' (e.g. '2/4')
+     * @return the test shard
+     */
+    public static TestShard parse(String value) {
+        final int separator = value == null ? -1 : value.indexOf('/');
+        if (separator < 0) {
+            throw new InvalidUserDataException("Invalid test shard '" + value + "', expected 'i/n' (e.g. '2/4')");
+        }
+        try {
+            return new TestShard(Integer.parseInt(value.substring(0, separator).trim()), Integer.parseInt(value.substring(separator + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new InvalidUserDataException("Invalid test shard '" + value + "', expected 'i/n' (e.g. '2/4')", e);
+        }
+    }
+
+    /**
+     * Checks if a test class belongs to this shard.
+     *
+     * @param classFile the relative path of the class file (e.g. 'com/example/FooTest$Inner.class') or the class name
+     * @return true if the class is executed by this shard
+     */
+    public boolean includes(String classFile) {
+        String className = classFile.endsWith(".class") ? classFile.substring(0, classFile.length() - 6) : classFile;
+        final int inner = className.indexOf('$');
+        if (inner >= 0) {
+            className = className.substring(0, inner);
+        }
+        className = className.replace('\\', '.').replace('/', '.');
+        return Math.floorMod(className.hashCode(), total) == index - 1;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.arielcarrera.build.features.utils;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Multi-keyword matcher (Aho-Corasick automaton).
+ * <p>
+ * The automaton is built once for a set of keywords and then checks whether a text contains any of them in a single pass over
+ * the text, regardless of the number of keywords.
+ *
+ * @author Ariel Carrera
+ */
+public class AhoCorasickMatcher {
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private Node failure;
+        private boolean terminal;
+    }
+
+    private final Node root = new Node();
+
+    public AhoCorasickMatcher(Collection<String> keywords) {
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (char c : keyword.toCharArray()) {
+                node = node.children.computeIfAbsent(c, key -> new Node());
+            }
+            node.terminal = true;
+        }
+        buildFailureLinks();
+    }
+
+    private void buildFailureLinks() {
+        final Queue<Node> queue = new ArrayDeque<>();
+        root.children.values().forEach(child -> {
+            child.failure = root;
+            queue.add(child);
+        });
+        while (!queue.isEmpty()) {
+            final Node node = queue.poll();
+            node.children.forEach((c, child) -> {
+                Node failure = node.failure;
+                while (failure != null && !failure.children.containsKey(c)) {
+                    failure = failure.failure;
+                }
+                child.failure = failure == null ? root : failure.children.get(c);
+                child.terminal |= child.failure.terminal;
+                queue.add(child);
+            });
+        }
+    }
+
+    /**
+     * Checks if the text contains any keyword.
+     *
+     * @param text the text to check
+     * @return true if at least one keyword is contained in the text
+     */
+    public boolean matches(String text) {
+        if (text == null) {
+            return false;
+        }
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            while (node != root && !node.children.containsKey(c)) {
+                node = node.failure;
+            }
+            node = node.children.getOrDefault(c, root);
+            if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
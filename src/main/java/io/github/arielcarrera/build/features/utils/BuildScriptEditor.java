@@ -0,0 +1,430 @@
+package io.github.arielcarrera.build.features.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Editor of Gradle build scripts (Groovy and Kotlin DSL).
+ * <p>
+ * The script is tokenized once, skipping comments and string literals, to locate the top level {@code dependencies} block and
+ * the {@code features} block of the plugin extension. The requested changes are collected as text edits over the original
+ * content and applied together, so everything outside the edited lines keeps its formatting.
+ *
+ * @author Ariel Carrera
+ */
+public class BuildScriptEditor {
+
+    private static final String DEPENDENCIES_BLOCK = "dependencies";
+    private static final String FEATURES_BLOCK = "features";
+    private static final String DEFAULT_INDENT = "    ";
+
+    /**
+     * Block of the build script.
+     *
+     * @param path  names of the enclosing blocks and the block itself, separated by '/'
+     * @param open  index of the opening brace
+     * @param close index of the closing brace
+     */
+    record Block(String path, int open, int close) {
+    }
+
+    private record Edit(int start, int end, String replacement) {
+    }
+
+    /**
+     * Statement of a block.
+     *
+     * @param start   index of the first character
+     * @param end     index after the last character, trailing separators and comments are not included
+     * @param headEnd index of the first brace of the statement (its closure), or its end when it has no closure
+     */
+    private record Statement(int start, int end, int headEnd) {
+    }
+
+    private final String content;
+    private final boolean kotlin;
+    private final String lineSeparator;
+    private final List<Block> blocks;
+    private final List<Edit> edits = new ArrayList<>();
+
+    public BuildScriptEditor(String content, boolean kotlin) {
+        this.content = content;
+        this.kotlin = kotlin;
+        this.lineSeparator = content.contains("\r\n") ? "\r\n" : "\n";
+        this.blocks = parse(content);
+    }
+
+    /**
+     * Whether the given build file uses the Kotlin DSL.
+     *
+     * @param fileName the build file name
+     * @return true for '.kts' files
+     */
+    public static boolean isKotlinScript(String fileName) {
+        return fileName != null && fileName.endsWith(".kts");
+    }
+
+    /**
+     * Removes the declarations of the given modules from the top level dependencies block. The whole statement is removed,
+     * including the call arguments spread over several lines and the configuration closure (exclusions, etc.), and the
+     * statements sharing a line with others (e.g. a single line block) are removed without touching the rest of the line.
+     *
+     * @param modules modules in the form 'group:name'
+     * @return the modules that were found and removed
+     */
+    public Set<String> removeDependencies(Collection<String> modules) {
+        final Set<String> removed = new LinkedHashSet<>();
+        for (Block block : findBlocks(DEPENDENCIES_BLOCK)) {
+            for (Statement statement : statements(block)) {
+                // nested blocks (e.g. constraints) are not declarations, only the statement head is checked
+                final String head = content.substring(statement.start(), statement.headEnd());
+                final String module = modules.stream().filter(m -> declares(head, m)).findFirst().orElse(null);
+                if (module != null) {
+                    edits.add(removal(statement, block));
+                    removed.add(module);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Enables the given features in the features block of the plugin extension, creating the blocks when they are missing.
+     *
+     * @param extensionName name of the plugin extension
+     * @param featureNames  features to enable
+     * @return the features that were added (features already enabled are skipped)
+     */
+    public List<String> enableFeatures(String extensionName, Collection<String> featureNames) {
+        final String featuresPath = extensionName + "/" + FEATURES_BLOCK;
+        final Block features = blocks.stream().filter(block -> block.path().equals(featuresPath)).findFirst().orElse(null);
+        final String body = features != null ? content.substring(features.open() + 1, features.close()) : "";
+        final List<String> added = featureNames.stream().distinct().filter(name -> !isEnabled(body, name)).toList();
+        if (added.isEmpty()) {
+            return added;
+        }
+        if (features != null) {
+            final String indent = bodyIndentation(features);
+            insertBeforeClose(features, added.stream().map(name -> indent + enableStatement(name)).toList());
+        } else {
+            final Block extension = blocks.stream().filter(block -> block.path().equals(extensionName)).findFirst().orElse(null);
+            if (extension != null) {
+                final String indent = bodyIndentation(extension);
+                final List<String> lines = new ArrayList<>();
+                lines.add(indent + FEATURES_BLOCK + " {");
+                added.forEach(name -> lines.add(indent + DEFAULT_INDENT + enableStatement(name)));
+                lines.add(indent + "}");
+                insertBeforeClose(extension, lines);
+            } else {
+                final StringBuilder builder = new StringBuilder();
+                if (!content.isEmpty() && !content.endsWith(lineSeparator)) {
+                    builder.append(lineSeparator);
+                }
+                builder.append(lineSeparator).append(extensionName).append(" {").append(lineSeparator)
+                    .append(DEFAULT_INDENT).append(FEATURES_BLOCK).append(" {").append(lineSeparator);
+                added.forEach(name -> builder.append(DEFAULT_INDENT).append(DEFAULT_INDENT).append(enableStatement(name)).append(lineSeparator));
+                builder.append(DEFAULT_INDENT).append("}").append(lineSeparator).append("}").append(lineSeparator);
+                edits.add(new Edit(content.length(), content.length(), builder.toString()));
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Whether there are pending changes.
+     *
+     * @return true if some change was requested
+     */
+    public boolean isModified() {
+        return !edits.isEmpty();
+    }
+
+    /**
+     * Applies the requested changes.
+     *
+     * @return the new content of the build script
+     */
+    public String apply() {
+        final List<Edit> sorted = edits.stream().sorted(Comparator.comparingInt(Edit::start)).toList();
+        final StringBuilder builder = new StringBuilder(content.length());
+        int position = 0;
+        for (Edit edit : sorted) {
+            if (edit.start() < position) {
+                // overlapped with a previous edit
+                continue;
+            }
+            builder.append(content, position, edit.start()).append(edit.replacement());
+            position = edit.end();
+        }
+        builder.append(content, position, content.length());
+        return builder.toString();
+    }
+
+    private List<Block> findBlocks(String path) {
+        return blocks.stream().filter(block -> block.path().equals(path)).toList();
+    }
+
+    /**
+     * Splits the body of a block into statements, skipping comments and string literals. A statement ends at a line break or
+     * a semicolon outside parentheses and braces, so the calls spread over several lines and the closures belong to it.
+     */
+    private List<Statement> statements(Block block) {
+        final List<Statement> result = new ArrayList<>();
+        int start = -1;
+        int end = -1;
+        int headEnd = -1;
+        int depth = 0;
+        int index = block.open() + 1;
+        while (index < block.close()) {
+            final char c = content.charAt(index);
+            if (c == '/' && index + 1 < block.close() && content.charAt(index + 1) == '/') {
+                index = lineEnd(index);
+                continue;
+            }
+            if (c == '/' && index + 1 < block.close() && content.charAt(index + 1) == '*') {
+                final int commentEnd = content.indexOf("*/", index + 2);
+                index = commentEnd < 0 ? block.close() : commentEnd + 2;
+                continue;
+            }
+            if ((c == '\n' || c == ';') && depth == 0) {
+                if (start >= 0) {
+                    result.add(new Statement(start, end, headEnd < 0 ? end : headEnd));
+                    start = -1;
+                    headEnd = -1;
+                }
+                index++;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                index++;
+                continue;
+            }
+            if (start < 0) {
+                start = index;
+            }
+            if (c == '\'' || c == '"') {
+                index = Math.min(skipString(content, index), block.close());
+                end = index;
+                continue;
+            }
+            if (c == '{' && headEnd < 0) {
+                headEnd = index;
+            }
+            if (c == '(' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == '}') {
+                depth = Math.max(0, depth - 1);
+            }
+            end = ++index;
+        }
+        if (start >= 0) {
+            result.add(new Statement(start, end, headEnd < 0 ? end : headEnd));
+        }
+        return result;
+    }
+
+    private Edit removal(Statement statement, Block block) {
+        final int lineStart = lineStart(statement.start());
+        final int lineEnd = Math.min(lineEnd(statement.end()), block.close());
+        final String after = content.substring(statement.end(), lineEnd).strip();
+        final String rest = after.startsWith(";") ? after.substring(1).strip() : after;
+        if (content.substring(lineStart, statement.start()).isBlank() && (rest.isEmpty() || rest.startsWith("//"))
+            && lineEnd < block.close()) {
+            // the statement takes whole lines
+            return new Edit(lineStart, nextLineStart(lineEnd), "");
+        }
+        // the statement shares the line with other content: remove it with its separator and the following spaces
+        int end = statement.end();
+        while (end < block.close() && (content.charAt(end) == ' ' || content.charAt(end) == '\t')) {
+            end++;
+        }
+        if (end < block.close() && content.charAt(end) == ';') {
+            end++;
+            while (end < block.close() && (content.charAt(end) == ' ' || content.charAt(end) == '\t')) {
+                end++;
+            }
+        }
+        return new Edit(statement.start(), end, "");
+    }
+
+    private void insertBeforeClose(Block block, List<String> lines) {
+        final int closeLineStart = lineStart(block.close());
+        final String beforeClose = content.substring(closeLineStart, block.close());
+        final String text = String.join(lineSeparator, lines) + lineSeparator;
+        if (beforeClose.isBlank() && closeLineStart > block.open()) {
+            edits.add(new Edit(closeLineStart, closeLineStart, text));
+        } else {
+            // closing brace shares the line with other content
+            edits.add(new Edit(block.close(), block.close(), lineSeparator + text + lineIndentation(lineStart(block.open()))));
+        }
+    }
+
+    private String bodyIndentation(Block block) {
+        int lineStart = nextLineStart(block.open());
+        while (lineStart < block.close()) {
+            final int lineEnd = Math.min(lineEnd(lineStart), block.close());
+            if (!content.substring(lineStart, lineEnd).isBlank()) {
+                return lineIndentation(lineStart);
+            }
+            lineStart = nextLineStart(lineEnd);
+        }
+        return lineIndentation(lineStart(block.open())) + DEFAULT_INDENT;
+    }
+
+    private String lineIndentation(int lineStart) {
+        int index = lineStart;
+        while (index < content.length() && (content.charAt(index) == ' ' || content.charAt(index) == '\t')) {
+            index++;
+        }
+        return content.substring(lineStart, index);
+    }
+
+    private String enableStatement(String featureName) {
+        return kotlin ? "enable(\"%s\")".formatted(featureName) : "enable '%s'".formatted(featureName);
+    }
+
+    private static boolean isEnabled(String body, String featureName) {
+        return Pattern.compile("\\benable\\s*\\(?\\s*['\"]" + Pattern.quote(featureName) + "['\"]").matcher(body).find();
+    }
+
+    private static boolean declares(String statement, String module) {
+        final String code = statement.lines().map(BuildScriptEditor::stripLineComment).collect(Collectors.joining("\n"));
+        if (code.contains(module + ":") || code.contains(module + "'") || code.contains(module + "\"")) {
+            return true;
+        }
+        // map notation: group: 'g', name: 'n' (Groovy) or group = "g", name = "n" (Kotlin)
+        final int separator = module.indexOf(':');
+        if (separator < 0) {
+            return false;
+        }
+        final String group = Pattern.quote(module.substring(0, separator));
+        final String name = Pattern.quote(module.substring(separator + 1));
+        return Pattern.compile("\\bgroup\\s*[:=]\\s*['\"]" + group + "['\"]").matcher(code).find()
+            && Pattern.compile("\\bname\\s*[:=]\\s*['\"]" + name + "['\"]").matcher(code).find();
+    }
+
+    private static String stripLineComment(String line) {
+        final int index = line.indexOf("//");
+        return index >= 0 && !line.substring(0, index).contains("\"") && !line.substring(0, index).contains("'") ?
+            line.substring(0, index) : line;
+    }
+
+    private int lineStart(int index) {
+        return content.lastIndexOf('\n', index - 1) + 1;
+    }
+
+    private int lineEnd(int index) {
+        final int end = content.indexOf('\n', index);
+        return end < 0 ? content.length() : end;
+    }
+
+    private int nextLineStart(int index) {
+        final int end = content.indexOf('\n', index);
+        return end < 0 ? content.length() : end + 1;
+    }
+
+    /**
+     * Tokenizes the script in a single pass, skipping comments and string literals, and returns the braces blocks found.
+     *
+     * @param content the script content
+     * @return blocks in order of their opening brace
+     */
+    static List<Block> parse(String content) {
+        final List<Block> result = new ArrayList<>();
+        final Deque<String> paths = new ArrayDeque<>();
+        final Deque<Integer> opens = new ArrayDeque<>();
+        final int length = content.length();
+        String pendingName = null;
+        int parenthesis = 0;
+        int index = 0;
+        while (index < length) {
+            final char c = content.charAt(index);
+            if (c == '/' && index + 1 < length && content.charAt(index + 1) == '/') {
+                index = content.indexOf('\n', index);
+                if (index < 0) {
+                    break;
+                }
+                continue;
+            }
+            if (c == '/' && index + 1 < length && content.charAt(index + 1) == '*') {
+                final int end = content.indexOf("*/", index + 2);
+                index = end < 0 ? length : end + 2;
+                continue;
+            }
+            if (c == '\'' || c == '"') {
+                index = skipString(content, index);
+                if (parenthesis == 0) {
+                    pendingName = null;
+                }
+                continue;
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                final int start = index;
+                while (index < length && (Character.isJavaIdentifierPart(content.charAt(index)) || content.charAt(index) == '.')) {
+                    index++;
+                }
+                if (parenthesis == 0) {
+                    final String identifier = content.substring(start, index);
+                    final int dot = identifier.lastIndexOf('.');
+                    pendingName = dot >= 0 ? identifier.substring(dot + 1) : identifier;
+                }
+                continue;
+            }
+            switch (c) {
+                case '(' -> parenthesis++;
+                case ')' -> parenthesis = Math.max(0, parenthesis - 1);
+                case '{' -> {
+                    final String name = pendingName != null ? pendingName : "";
+                    paths.push(paths.isEmpty() ? name : paths.peek() + "/" + name);
+                    opens.push(index);
+                    pendingName = null;
+                    parenthesis = 0;
+                }
+                case '}' -> {
+                    if (!opens.isEmpty()) {
+                        result.add(new Block(paths.pop(), opens.pop(), index));
+                    }
+                    pendingName = null;
+                }
+                default -> {
+                    if (parenthesis == 0 && !Character.isWhitespace(c)) {
+                        pendingName = null;
+                    }
+                }
+            }
+            index++;
+        }
+        result.sort(Comparator.comparingInt(Block::open));
+        return result;
+    }
+
+    private static int skipString(String content, int index) {
+        final char quote = content.charAt(index);
+        final String triple = String.valueOf(quote).repeat(3);
+        if (content.startsWith(triple, index)) {
+            final int end = content.indexOf(triple, index + 3);
+            return end < 0 ? content.length() : end + 3;
+        }
+        int position = index + 1;
+        while (position < content.length()) {
+            final char c = content.charAt(position);
+            if (c == '\\') {
+                position += 2;
+                continue;
+            }
+            if (c == quote || c == '\n') {
+                return position + 1;
+            }
+            position++;
+        }
+        return position;
+    }
+}
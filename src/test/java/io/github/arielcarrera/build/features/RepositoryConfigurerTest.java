@@ -0,0 +1,168 @@
+package io.github.arielcarrera.build.features;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.logging.Logging;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RepositoryConfigurerTest {
+
+    private static final String COMPANY_RELEASE = "com.acme:billing:1.0";
+    private static final String COMPANY_SNAPSHOT = "com.acme:billing:1.1-SNAPSHOT";
+    private static final String PUBLIC_RELEASE = "org.example:utils:1.0";
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void declaresPublishingRepositoryFromSettings() {
+        // with the settings plugin the project has no repositories, the publishing repository only depends on the settings
+        Map<String, String> environment = Map.of("NEXUS_URL", "https://nexus.example.com", "NEXUS_USER", "user", "NEXUS_PASS", "secret");
+
+        RepositoryConfigurer.PublishingRepository releases = RepositoryConfigurer.publishingRepository(new RepositorySettings(), false, environment::get);
+        RepositoryConfigurer.PublishingRepository snapshots = RepositoryConfigurer.publishingRepository(new RepositorySettings(), true, environment::get);
+
+        Assertions.assertEquals("releasesRepository", releases.name());
+        Assertions.assertEquals(URI.create("https://nexus.example.com/maven-releases/"), releases.url());
+        Assertions.assertEquals("user", releases.username());
+        Assertions.assertEquals("secret", releases.password());
+        Assertions.assertEquals("snapshotsRepository", snapshots.name());
+        Assertions.assertEquals(URI.create("https://nexus.example.com/maven-snapshots/"), snapshots.url());
+    }
+
+    @Test
+    public void withoutUrlThereIsNoPublishingRepository() {
+        Assertions.assertNull(RepositoryConfigurer.publishingRepository(new RepositorySettings(), false, name -> null));
+    }
+
+    @Test
+    public void mavenLocalModes() {
+        publish("local", COMPANY_RELEASE, COMPANY_SNAPSHOT, PUBLIC_RELEASE);
+
+        Project all = configure(new RepositoryConfigurer.Options(BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_ALL, null, false, false));
+        Assertions.assertEquals(repository("local"), resolve(all, PUBLIC_RELEASE));
+
+        // only the company snapshots are resolved from maven local
+        Project snapshots = configure(new RepositoryConfigurer.Options(BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_SNAPSHOTS, "com.acme", false, false));
+        Assertions.assertEquals(repository("local"), resolve(snapshots, COMPANY_SNAPSHOT));
+        Assertions.assertThrows(ResolveException.class, () -> resolve(snapshots, COMPANY_RELEASE));
+        Assertions.assertThrows(ResolveException.class, () -> resolve(snapshots, PUBLIC_RELEASE));
+
+        Project disabled = configure(new RepositoryConfigurer.Options(BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_DISABLED, null, false, false));
+        Assertions.assertNull(disabled.getRepositories().findByName("MavenLocal"));
+    }
+
+    @Test
+    public void contentFilteringKeepsCompanyGroupsInCompanyRepositories() {
+        publish("central", COMPANY_RELEASE, PUBLIC_RELEASE);
+        publish("company/maven-releases", COMPANY_RELEASE, PUBLIC_RELEASE);
+        publish("company/maven-snapshots", COMPANY_SNAPSHOT);
+
+        Project filtered = configure(new RepositoryConfigurer.Options(BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_DISABLED, "com.acme", true, false));
+        // Maven Central is declared first, but the company groups are excluded from it
+        Assertions.assertEquals(repository("company/maven-releases"), resolve(filtered, COMPANY_RELEASE));
+        Assertions.assertEquals(repository("company/maven-snapshots"), resolve(filtered, COMPANY_SNAPSHOT));
+        // and the company repositories only include the company groups
+        Project companyOnly = configure(new RepositoryConfigurer.Options(BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_DISABLED, "com.acme", true, false));
+        companyOnly.getRepositories().remove(companyOnly.getRepositories().getByName("MavenRepo"));
+        Assertions.assertThrows(ResolveException.class, () -> resolve(companyOnly, PUBLIC_RELEASE));
+
+        Project unfiltered = configure(new RepositoryConfigurer.Options(BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_DISABLED, "com.acme", false, false));
+        Assertions.assertEquals(repository("central"), resolve(unfiltered, COMPANY_RELEASE));
+    }
+
+    @Test
+    public void exclusiveContentResolvesCompanyGroupsFromCompanyRepositories() {
+        publish("local", COMPANY_RELEASE, PUBLIC_RELEASE);
+        publish("central", COMPANY_RELEASE, PUBLIC_RELEASE);
+        publish("company/maven-releases", COMPANY_RELEASE, PUBLIC_RELEASE);
+
+        Project project = configure(new RepositoryConfigurer.Options(BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_ALL, "com.acme", false, true));
+
+        // maven local and Maven Central are declared first
+        Assertions.assertEquals(repository("company/maven-releases"), resolve(project, COMPANY_RELEASE));
+        Assertions.assertEquals(repository("local"), resolve(project, PUBLIC_RELEASE));
+    }
+
+    @Test
+    public void exclusiveContentRequiresCompanyGroupPrefix() {
+        Assertions.assertThrows(RuntimeException.class, () ->
+            configure(new RepositoryConfigurer.Options(BaseBuildFeaturesPlugin.MAVEN_LOCAL_MODE_ALL, null, false, true)));
+    }
+
+    /**
+     * Configures a project whose repositories are local file repositories: maven local ('local'), Maven Central
+     * ('central') and the company repository ('company').
+     */
+    private Project configure(RepositoryConfigurer.Options options) {
+        System.setProperty("maven.repo.local", repository("local").toString());
+        try {
+            final Project project = ProjectBuilder.builder().withProjectDir(directory("project-" + System.nanoTime()).toFile()).build();
+            new RepositoryConfigurer(new RepositorySettings(), Logging.getLogger(RepositoryConfigurerTest.class),
+                Map.of("NEXUS_URL", repository("company").toUri().toString())::get).configure(project.getRepositories(), options, List.of());
+            ((MavenArtifactRepository) project.getRepositories().getByName("MavenRepo")).setUrl(repository("central").toUri());
+            return project;
+        } finally {
+            System.clearProperty("maven.repo.local");
+        }
+    }
+
+    /**
+     * Resolves a module without its transitive dependencies.
+     *
+     * @return the repository of the resolved module
+     */
+    private Path resolve(Project project, String notation) {
+        System.setProperty("maven.repo.local", repository("local").toString());
+        try {
+            final Path file = project.getConfigurations().detachedConfiguration(project.getDependencies().create(notation))
+                .getSingleFile().toPath();
+            return List.of("local", "central", "company/maven-releases", "company/maven-snapshots").stream().map(this::repository)
+                .filter(file::startsWith).findFirst().orElseThrow();
+        } finally {
+            System.clearProperty("maven.repo.local");
+        }
+    }
+
+    private void publish(String repository, String... notations) {
+        for (String notation : notations) {
+            final String[] parts = notation.split(":");
+            final Path dir = repository(repository).resolve(parts[0].replace('.', '/')).resolve(parts[1]).resolve(parts[2]);
+            final String baseName = parts[1] + "-" + parts[2];
+            try {
+                Files.createDirectories(dir);
+                Files.writeString(dir.resolve(baseName + ".pom"), """
+                    <project>
+                        <modelVersion>4.0.0</modelVersion>
+                        <groupId>%s</groupId>
+                        <artifactId>%s</artifactId>
+                        <version>%s</version>
+                    </project>
+                    """.formatted((Object[]) parts));
+                Files.writeString(dir.resolve(baseName + ".jar"), repository);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Path repository(String name) {
+        return directory("repositories/" + name);
+    }
+
+    private Path directory(String name) {
+        return root.resolve(name).toAbsolutePath().normalize();
+    }
+}
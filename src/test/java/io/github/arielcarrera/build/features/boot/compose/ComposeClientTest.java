@@ -0,0 +1,93 @@
+package io.github.arielcarrera.build.features.boot.compose;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ComposeClientTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void parsesArrayAndLineOutput() {
+        String array = "[{\"Name\":\"app-config-1\",\"Service\":\"app-config\",\"State\":\"running\",\"Health\":\"starting\"}]";
+        String lines = """
+            {"Name":"mongo-1","Service":"mongo","State":"running","Health":""}
+            {"Name":"kafka-1","Service":"kafka","State":"exited","Health":""}
+            """;
+
+        Assertions.assertEquals(List.of(new ComposeServiceState("app-config-1", "app-config", "running", "starting")),
+            ComposeClient.parseServices(array));
+        List<ComposeServiceState> services = ComposeClient.parseServices(lines);
+        Assertions.assertTrue(services.get(0).isHealthy());
+        Assertions.assertTrue(services.get(1).isExited());
+        Assertions.assertTrue(ComposeClient.parseServices("").isEmpty());
+    }
+
+    @Test
+    public void parsesPodmanOutput() {
+        String json = "[{\"Names\":[\"app-config_app-config_1\"],\"State\":\"running\",\"Status\":\"Up 2 minutes (healthy)\","
+            + "\"Labels\":{\"com.docker.compose.service\":\"app-config\"}}]";
+
+        Assertions.assertEquals(List.of(new ComposeServiceState("app-config_app-config_1", "app-config", "running", "healthy")),
+            ComposeClient.parseServices(json));
+    }
+
+    @Test
+    public void resolvesContainerRuntime() {
+        Assertions.assertEquals(List.of("podman", "compose"), ContainerRuntime.of("Podman").composeCommand(null));
+        Assertions.assertEquals(List.of("/opt/docker", "compose"), ContainerRuntime.DOCKER.composeCommand("/opt/docker"));
+        Assertions.assertThrows(InvalidUserDataException.class, () -> ContainerRuntime.of("lxc"));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    public void awaitsUntilHealthy() throws Exception {
+        // the stub reports the service as healthy from the third probe
+        Path docker = stub("""
+            #!/bin/sh
+            count=$(cat "$0.count" 2>/dev/null || echo 0)
+            count=$((count + 1))
+            echo $count > "$0.count"
+            health=starting
+            [ $count -ge 3 ] && health=healthy
+            echo '{"Name":"app-config-1","Service":"app-config","State":"running","Health":"'$health'"}'
+            """);
+        ComposeClient client = new ComposeClient(List.of(docker.toString(), "compose"), tempDir.toFile(), "compose.yaml", "app-config");
+
+        ComposeServiceState state = client.awaitHealthy("app-config", Duration.ofSeconds(10));
+
+        Assertions.assertTrue(state.isHealthy());
+        Assertions.assertEquals("3", Files.readString(Path.of(docker + ".count")).trim());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    public void failsWhenServiceExits() throws Exception {
+        Path docker = stub("""
+            #!/bin/sh
+            echo '{"Name":"app-config-1","Service":"app-config","State":"exited","Health":""}'
+            """);
+        ComposeClient client = new ComposeClient(List.of(docker.toString(), "compose"), tempDir.toFile(), "compose.yaml", "app-config");
+
+        Assertions.assertThrows(GradleException.class, () -> client.awaitHealthy("app-config", Duration.ofSeconds(10)));
+    }
+
+    private Path stub(String script) throws IOException {
+        Path docker = tempDir.resolve("docker");
+        Files.writeString(docker, script);
+        Assertions.assertTrue(docker.toFile().setExecutable(true));
+        return docker;
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.arielcarrera.build.features.boot.compose;
+
+import java.util.List;
+
+import org.gradle.api.InvalidUserDataException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ComposeStartupOrderTest {
+
+    private static ComposeService service(String name, String... dependsOn) {
+        return new ComposeService(name, List.of(dependsOn), 30);
+    }
+
+    @Test
+    public void sortsDependenciesFirst() {
+        List<ComposeService> sorted = ComposeStartupOrder.sort(List.of(service("app-config", "mongo", "kafka"), service("kafka"),
+            service("redis"), service("mongo")));
+
+        Assertions.assertEquals(List.of("mongo", "kafka", "app-config", "redis"), sorted.stream().map(ComposeService::name).toList());
+    }
+
+    @Test
+    public void rejectsCyclesAndUndeclaredServices() {
+        Assertions.assertThrows(InvalidUserDataException.class,
+            () -> ComposeStartupOrder.sort(List.of(service("a", "b"), service("b", "a"))));
+        Assertions.assertThrows(InvalidUserDataException.class,
+            () -> ComposeStartupOrder.sort(List.of(service("a", "missing"))));
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.arielcarrera.build.features.boot.env;
+
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.api.InvalidUserDataException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DotEnvFileTest {
+
+    @Test
+    public void parsesQuotesAndComments() {
+        String content = """
+            # comment
+            export DB_HOST=localhost # inline comment
+            DB_USER = 'user # not a comment'
+            DB_PASSWORD="line1\\nline2"
+            CERT="-----BEGIN-----
+            abc
+            -----END-----"
+            INVALID LINE
+            URL=http://host/path#anchor
+            """;
+
+        DotEnvFile.Result result = DotEnvFile.parse(content, Map.of());
+
+        Assertions.assertEquals(List.of("DB_HOST", "DB_USER", "DB_PASSWORD", "CERT", "URL"), List.copyOf(result.values().keySet()));
+        Assertions.assertEquals("localhost", result.values().get("DB_HOST"));
+        Assertions.assertEquals("user # not a comment", result.values().get("DB_USER"));
+        Assertions.assertEquals("line1\nline2", result.values().get("DB_PASSWORD"));
+        Assertions.assertEquals("-----BEGIN-----\nabc\n-----END-----", result.values().get("CERT"));
+        Assertions.assertEquals("http://host/path#anchor", result.values().get("URL"));
+        Assertions.assertEquals(List.of("INVALID LINE"), result.invalidLines());
+    }
+
+    @Test
+    public void interpolatesVariables() {
+        String content = """
+            HOST=localhost
+            URL=http://${HOST}:${PORT:-8080}/$APP
+            LITERAL='${HOST}'
+            ESCAPED="\\${HOST}"
+            """;
+
+        DotEnvFile.Result result = DotEnvFile.parse(content, Map.of("APP", "demo"));
+
+        Assertions.assertEquals("http://localhost:8080/demo", result.values().get("URL"));
+        Assertions.assertEquals("${HOST}", result.values().get("LITERAL"));
+        Assertions.assertEquals("${HOST}", result.values().get("ESCAPED"));
+    }
+
+    @Test
+    public void interpolationPrefersTheEnvironment() {
+        String content = """
+            HOST=localhost
+            URL=http://${HOST}/
+            """;
+
+        DotEnvFile.Result result = DotEnvFile.parse(content, Map.of("HOST", "example.org"));
+
+        // HOST is not applied because it is defined in the environment, so URL uses the effective value
+        Assertions.assertEquals("http://example.org/", result.values().get("URL"));
+    }
+
+    @Test
+    public void failsOnUnterminatedQuotes() {
+        String content = """
+            HOST=localhost
+            CERT="-----BEGIN-----
+            abc
+            OTHER=value
+            """;
+
+        InvalidUserDataException exception = Assertions.assertThrows(InvalidUserDataException.class,
+            () -> DotEnvFile.parse(content, Map.of()));
+        Assertions.assertTrue(exception.getMessage().contains("'CERT' at line 2"), exception.getMessage());
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.arielcarrera.build.features.boot.layers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import io.github.arielcarrera.build.features.dependencies.DependencyMetadata;
+import io.github.arielcarrera.build.features.dependencies.Feature;
+
+public class FeatureLayersTest {
+
+    @Test
+    public void ordersFeatureLayersBetweenLoaderAndSnapshots() {
+        Feature web = new Feature("web", "Web", Set.of(
+            new DependencyMetadata("implementation", "org.springframework.boot", "spring-boot-starter-web", null, null, Set.of(), null)), null);
+        Feature kafka = new Feature("kafka", "Kafka", Set.of(
+            new DependencyMetadata("implementation", "org.springframework.kafka", "spring-kafka", null, null, Set.of(), null)), null);
+
+        Map<String, List<String>> layers = FeatureLayers.calculate(List.of(web, kafka));
+
+        Assertions.assertEquals(List.of("dependencies", "spring-boot-loader", "feature-kafka", "feature-web", "snapshot-dependencies",
+            "application"), FeatureLayers.order(layers.keySet()));
+        Assertions.assertEquals(List.of("org.springframework.kafka:spring-kafka:*"), layers.get("feature-kafka"));
+    }
+
+    @Test
+    public void skipsFeaturesWithOnlyTestDependencies() {
+        Feature testcontainers = new Feature("testcontainers", "Testcontainers", Set.of(
+            new DependencyMetadata("testImplementation", "org.testcontainers", "junit-jupiter", null, null, Set.of(), null)), null);
+
+        Map<String, List<String>> layers = FeatureLayers.calculate(List.of(testcontainers));
+
+        Assertions.assertTrue(layers.isEmpty());
+        Assertions.assertEquals(List.of("dependencies", "spring-boot-loader", "snapshot-dependencies", "application"),
+            FeatureLayers.order(layers.keySet()));
+    }
+}
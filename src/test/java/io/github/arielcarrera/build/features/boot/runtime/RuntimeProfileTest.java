@@ -0,0 +1,33 @@
+package io.github.arielcarrera.build.features.boot.runtime;
+
+import java.util.List;
+
+import org.gradle.api.InvalidUserDataException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RuntimeProfileTest {
+
+    @Test
+    public void calculatesProfileArguments() {
+        List<String> args = RuntimeProfile.calculateJvmArgs("small-footprint", true, List.of("-Dfoo=bar"));
+
+        Assertions.assertEquals("-XX:+UseSerialGC", args.get(0));
+        Assertions.assertTrue(args.contains("-XX:+ExitOnOutOfMemoryError"));
+        Assertions.assertFalse(args.contains("-XX:+UseContainerSupport"));
+        Assertions.assertEquals(List.of("-Dspring.threads.virtual.enabled=true", "-Dfoo=bar"), args.subList(args.size() - 2, args.size()));
+    }
+
+    @Test
+    public void withoutProfileOnlyAddsRequestedArguments() {
+        Assertions.assertEquals(List.of("-Xmx1g"), RuntimeProfile.calculateJvmArgs(null, false, List.of("-Xmx1g")));
+        Assertions.assertThrows(InvalidUserDataException.class, () -> RuntimeProfile.calculateJvmArgs("fast", false, List.of()));
+    }
+
+    @Test
+    public void testArgumentsOnlySelectTheCollector() {
+        Assertions.assertEquals(List.of("-XX:+UseZGC", "-Dspring.threads.virtual.enabled=true"),
+            RuntimeProfile.calculateTestJvmArgs("low-latency", true));
+        Assertions.assertEquals(List.of(), RuntimeProfile.calculateTestJvmArgs(null, false));
+    }
+}
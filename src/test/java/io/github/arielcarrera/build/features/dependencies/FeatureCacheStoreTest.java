@@ -0,0 +1,70 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FeatureCacheStoreTest {
+
+    private static final DependencyMetadata KAFKA = new DependencyMetadata("implementation", "org.springframework.kafka", "spring-kafka", null,
+        null, Set.of(new DependencyExclusion("io.zipkin.brave", "brave-instrumentation-kafka-clients")), null);
+    private static final DependencyMetadata TRACING = new DependencyMetadata("implementation", "io.micrometer", "micrometer-tracing", "1.2.0",
+        "micrometerVersion", Set.of(), null);
+
+    private final Feature kafka = new Feature("springKafka", "Spring Kafka", Set.of(KAFKA), "kafka", Boolean.TRUE);
+    private final Feature tracing = new Feature("tracing", "Tracing", Set.of(TRACING), "tracing");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void catalogIsPersistedByFingerprint() throws IOException {
+        new FeatureCacheStore(directory).writeCatalog("plugin.jar:100:1", List.of(kafka, tracing));
+
+        // a new store reads what a previous build wrote
+        List<Feature> catalog = new FeatureCacheStore(directory).readCatalog("plugin.jar:100:1");
+        Assertions.assertEquals(List.of(kafka, tracing), catalog);
+        Assertions.assertTrue(FeatureSelection.sameDefinition(kafka, catalog.get(0)));
+        Assertions.assertNull(new FeatureCacheStore(directory).readCatalog("plugin.jar:200:2"));
+
+        // a new version of the feature files replaces the previous catalog
+        new FeatureCacheStore(directory).writeCatalog("plugin.jar:200:2", List.of(tracing));
+        Assertions.assertEquals(List.of(tracing), new FeatureCacheStore(directory).readCatalog("plugin.jar:200:2"));
+        Assertions.assertNull(new FeatureCacheStore(directory).readCatalog("plugin.jar:100:1"));
+        try (var files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void selectionDeltaAfterRestore() {
+        new FeatureCacheStore(directory).writeSelection(":app", FeatureSelection.resolve(List.of(kafka)));
+
+        FeatureSelection previous = new FeatureCacheStore(directory).readSelection(":app");
+        Assertions.assertEquals("springKafka", previous.fingerprint());
+        Assertions.assertNull(new FeatureCacheStore(directory).readSelection(":other"));
+
+        FeatureSelection selection = FeatureSelection.update(previous, List.of(kafka, tracing));
+        // the restored kafka entry is reused, only the added feature is evaluated
+        Assertions.assertSame(previous.entries().get("springKafka"), selection.entries().get("springKafka"));
+        Assertions.assertEquals(Set.of(TRACING), selection.delta(previous).added());
+        Assertions.assertTrue(selection.delta(previous).removed().isEmpty());
+    }
+
+    @Test
+    public void unreadableFilesAreIgnored() throws IOException {
+        FeatureCacheStore store = new FeatureCacheStore(directory);
+        store.writeCatalog("plugin.jar:100:1", List.of(kafka));
+        try (var files = Files.list(directory)) {
+            Files.writeString(files.findFirst().orElseThrow(), "corrupted");
+        }
+
+        Assertions.assertNull(store.readCatalog("plugin.jar:100:1"));
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FeatureCoverageTest {
+
+    private static Feature feature(String key, DependencyMetadata... dependencies) {
+        return new Feature(key, key, Arrays.stream(dependencies).collect(Collectors.toSet()), key);
+    }
+
+    private static DependencyMetadata dependency(String configuration, String group, String name) {
+        return new DependencyMetadata(configuration, group, name, null, null, Set.of(), null);
+    }
+
+    @Test
+    public void selectsMinimalFeatures() {
+        Feature web = feature("springBootWeb", dependency("implementation", "org.springframework.boot", "spring-boot-starter-web"));
+        Feature kafka = feature("springKafka", dependency("implementation", "org.springframework.kafka", "spring-kafka"),
+            dependency("testImplementation", "org.springframework.kafka", "spring-kafka-test"));
+        Feature kafkaOnly = feature("kafka", dependency("implementation", "org.springframework.kafka", "spring-kafka"));
+        Feature mongo = feature("springBootDataMongoDb", dependency("implementation", "org.springframework.boot", "spring-boot-starter-data-mongodb"));
+        Set<String> declared = Set.of(
+            FeatureCoverage.key("implementation", "org.springframework.boot", "spring-boot-starter-web"),
+            FeatureCoverage.key("implementation", "org.springframework.kafka", "spring-kafka"),
+            FeatureCoverage.key("testImplementation", "org.springframework.kafka", "spring-kafka-test"),
+            FeatureCoverage.key("implementation", "commons-io", "commons-io"));
+
+        FeatureCoverage.Result result = FeatureCoverage.compute(declared, List.of(web, kafka, kafkaOnly, mongo));
+
+        Assertions.assertEquals(List.of(kafka, web), result.features());
+        Assertions.assertEquals(3, result.covered().size());
+        Assertions.assertEquals(Set.of("implementation:commons-io:commons-io"), result.leftovers());
+    }
+
+    @Test
+    public void conditionalDependenciesAreNotRequired() {
+        Feature jersey = feature("springBootJersey", dependency("implementation", "org.springframework.boot", "spring-boot-starter-jersey"),
+            new DependencyMetadata("implementation", "io.swagger", "swagger-jaxrs2", null, null, Set.of(), "openApi"));
+        Set<String> declared = Set.of(FeatureCoverage.key("implementation", "org.springframework.boot", "spring-boot-starter-jersey"));
+
+        FeatureCoverage.Result result = FeatureCoverage.compute(declared, List.of(jersey));
+
+        Assertions.assertEquals(List.of(jersey), result.features());
+        Assertions.assertTrue(result.leftovers().isEmpty());
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FeatureSelectionTest {
+
+    private static final DependencyMetadata KAFKA = new DependencyMetadata("implementation", "org.springframework.kafka", "spring-kafka", null, null, Set.of(), null);
+    private static final DependencyMetadata KAFKA_TRACING = new DependencyMetadata("implementation", "io.zipkin.brave", "brave-instrumentation-kafka-clients", null, null, Set.of(), "tracing");
+    private static final DependencyMetadata KAFKA_NO_TRACING = new DependencyMetadata("implementation", "org.example", "kafka-logging", null, null, Set.of(), "!tracing");
+    private static final DependencyMetadata TRACING = new DependencyMetadata("implementation", "io.micrometer", "micrometer-tracing", null, null, Set.of(), null);
+    private static final DependencyMetadata WEB = new DependencyMetadata("implementation", "org.springframework.boot", "spring-boot-starter-web", null, null, Set.of(), null);
+
+    private final Feature kafka = new Feature("springKafka", "Spring Kafka", Set.of(KAFKA, KAFKA_TRACING, KAFKA_NO_TRACING), "kafka");
+    private final Feature tracing = new Feature("tracing", "Tracing", Set.of(TRACING), "tracing");
+    private final Feature web = new Feature("springWeb", "Spring Web", Set.of(WEB), "web");
+
+    @Test
+    public void evaluatesActivationConditions() {
+        FeatureSelection selection = FeatureSelection.resolve(List.of(kafka));
+        Assertions.assertEquals(Set.of(KAFKA, KAFKA_NO_TRACING), Set.copyOf(selection.dependencies()));
+        Assertions.assertEquals("springKafka", selection.fingerprint());
+
+        selection = FeatureSelection.resolve(List.of(kafka, tracing));
+        Assertions.assertEquals(Set.of(KAFKA, KAFKA_TRACING, TRACING), Set.copyOf(selection.dependencies()));
+        Assertions.assertEquals("springKafka,tracing", selection.fingerprint());
+    }
+
+    @Test
+    public void updatesOnlyTheAffectedFeatures() {
+        FeatureSelection previous = FeatureSelection.resolve(List.of(kafka, web));
+        Assertions.assertSame(previous, FeatureSelection.update(previous, List.of(web, kafka)));
+
+        FeatureSelection selection = FeatureSelection.update(previous, List.of(kafka, web, tracing));
+        // the kafka feature has a condition on the added feature, the web feature is reused
+        Assertions.assertSame(previous.entries().get("springWeb"), selection.entries().get("springWeb"));
+        Assertions.assertNotSame(previous.entries().get("springKafka"), selection.entries().get("springKafka"));
+        FeatureSelection.Delta delta = selection.delta(previous);
+        Assertions.assertEquals(Set.of(KAFKA_TRACING, TRACING), delta.added());
+        Assertions.assertEquals(Set.of(KAFKA_NO_TRACING), delta.removed());
+
+        // an equal definition (e.g. restored from the cache) is reused, a changed definition is evaluated again
+        Feature copy = new Feature("springWeb", "Spring Web", Set.of(WEB), "web");
+        Assertions.assertSame(selection.entries().get("springWeb"), FeatureSelection.update(selection, List.of(kafka, copy, tracing)).entries().get("springWeb"));
+        DependencyMetadata webVersion = new DependencyMetadata("implementation", "org.springframework.boot", "spring-boot-starter-web", "3.2.1", null, Set.of(), null);
+        Feature redefined = new Feature("springWeb", "Spring Web", Set.of(webVersion), "web");
+        Assertions.assertEquals(List.of(webVersion), FeatureSelection.update(selection, List.of(kafka, redefined, tracing)).entries().get("springWeb").dependencies());
+
+        Assertions.assertTrue(FeatureSelection.update(selection, List.of(kafka, web, tracing)).delta(selection).isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.arielcarrera.build.features.dependencies;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.api.InvalidUserDataException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VersionCatalogGeneratorTest {
+
+    @Test
+    public void generatesLibrariesAndBundlePerFeature() {
+        Feature kafka = new Feature("springKafka", "Spring Kafka", Set.of(
+            new DependencyMetadata("implementation", "org.springframework.kafka", "spring-kafka", null, null, Set.of(), null),
+            new DependencyMetadata("testImplementation", "org.springframework.kafka", "spring-kafka-test", null, null, Set.of(), null)), "kafka");
+        Feature openApi = new Feature("openApi", "OpenAPI", Set.of(
+            new DependencyMetadata("implementation", "org.springdoc", "springdoc-openapi-starter-webmvc-ui", "2.1.0", "springdocVersion", Set.of(), null),
+            new DependencyMetadata("implementation", "io.swagger", "swagger-jaxrs2", "2.2.12", null, Set.of(), "springBootJersey")), "openApi");
+
+        String toml = VersionCatalogGenerator.generate(List.of(kafka, openApi),
+            Map.of("org.springframework.cloud:spring-cloud-dependencies", "2023.0.0"));
+
+        Assertions.assertTrue(toml.contains("spring-cloud = \"2023.0.0\"\n"));
+        Assertions.assertTrue(toml.contains("springdoc-version = \"2.1.0\"\n"));
+        Assertions.assertTrue(toml.contains("spring-cloud-dependencies = { module = \"org.springframework.cloud:spring-cloud-dependencies\", version.ref = \"spring-cloud\" }\n"));
+        Assertions.assertTrue(toml.contains("springdoc-openapi-starter-webmvc-ui = { module = \"org.springdoc:springdoc-openapi-starter-webmvc-ui\", version.ref = \"springdoc-version\" }\n"));
+        Assertions.assertTrue(toml.contains("swagger-jaxrs2 = { module = \"io.swagger:swagger-jaxrs2\", version = \"2.2.12\" }\n"));
+        Assertions.assertTrue(toml.contains("spring-kafka = { module = \"org.springframework.kafka:spring-kafka\" }\n"));
+        Assertions.assertTrue(toml.contains("spring-kafka = [\"spring-kafka\"]\n"));
+        Assertions.assertTrue(toml.contains("spring-kafka-test-implementation = [\"spring-kafka-test\"]\n"));
+        // conditional dependencies are not part of the bundle
+        Assertions.assertTrue(toml.contains("open-api = [\"springdoc-openapi-starter-webmvc-ui\"]\n"));
+    }
+
+    @Test
+    public void aliasesAreValidCatalogAliases() {
+        Assertions.assertEquals("spring-boot-web", VersionCatalogGenerator.toAlias("springBootWeb"));
+        Assertions.assertEquals("log4j-api", VersionCatalogGenerator.toAlias("log4j-api"));
+        Assertions.assertEquals("jackson2", VersionCatalogGenerator.toAlias("jackson.2"));
+    }
+
+    @Test
+    public void prefixesCollidingLibraryAliasesWithGroupSegments() {
+        Feature feature = new Feature("utils", "Utils", Set.of(
+            new DependencyMetadata("implementation", "com.acme.core", "utils", null, null, Set.of(), null),
+            new DependencyMetadata("implementation", "org.other.core", "utils", null, null, Set.of(), null),
+            new DependencyMetadata("implementation", "org.example", "core-utils", null, null, Set.of(), null)), null);
+
+        Map<String, String> aliases = VersionCatalogGenerator.libraryAliases(List.of(feature), List.of());
+
+        Assertions.assertEquals("acme-core-utils", aliases.get("com.acme.core:utils"));
+        Assertions.assertEquals("other-core-utils", aliases.get("org.other.core:utils"));
+        Assertions.assertEquals(3, Set.copyOf(aliases.values()).size());
+    }
+
+    @Test
+    public void failsOnVersionAliasCollision() {
+        Feature cloud = new Feature("cloud", "Cloud", Set.of(
+            new DependencyMetadata("implementation", "org.example", "cloud-client", "1.0.0", "springCloud", Set.of(), null)), null);
+
+        Assertions.assertThrows(InvalidUserDataException.class, () -> VersionCatalogGenerator.generate(List.of(cloud),
+            Map.of("org.springframework.cloud:spring-cloud-dependencies", "2023.0.0")));
+    }
+
+    @Test
+    public void failsOnLibraryVersionConflict() {
+        Feature client = new Feature("client", "Client", Set.of(
+            new DependencyMetadata("implementation", "org.example", "http-client", "1.0.0", null, Set.of(), null)), null);
+        Feature server = new Feature("server", "Server", Set.of(
+            new DependencyMetadata("implementation", "org.example", "http-client", "1.1.0", null, Set.of(), null)), null);
+
+        Assertions.assertThrows(InvalidUserDataException.class, () -> VersionCatalogGenerator.generate(List.of(client, server), Map.of()));
+    }
+
+    @Test
+    public void failsOnReservedAliasPrefix() {
+        Feature feature = new Feature("tools", "Tools", Set.of(
+            new DependencyMetadata("implementation", "org.example", "plugins-api", "1.0.0", null, Set.of(), null)), null);
+
+        Assertions.assertThrows(InvalidUserDataException.class, () -> VersionCatalogGenerator.generate(List.of(feature), Map.of()));
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.arielcarrera.build.features.tasks;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.api.InvalidUserDataException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ExportRequestsTest {
+
+    @Test
+    public void parsesDependencyAndFileRequests() {
+        Map<String, String> requests = ExportRequests.parse("spring-kafka", "", List.of(
+            "# comment",
+            "",
+            "  openApi = /org\\.springdoc:.*/  ",
+            "jackson-databind"), name -> name.replace("-", ""));
+
+        Assertions.assertEquals(List.of("springkafka", "openApi", "jacksondatabind"), List.copyOf(requests.keySet()));
+        Assertions.assertEquals("spring-kafka", requests.get("springkafka"));
+        Assertions.assertEquals("/org\\.springdoc:.*/", requests.get("openApi"));
+        Assertions.assertEquals("jackson-databind", requests.get("jacksondatabind"));
+        Assertions.assertEquals(Map.of("kafka", "spring-kafka"), ExportRequests.parse("spring-kafka", "kafka", List.of(), name -> name));
+    }
+
+    @Test
+    public void rejectsDuplicatedFeatures() {
+        InvalidUserDataException exception = Assertions.assertThrows(InvalidUserDataException.class,
+            () -> ExportRequests.parse(null, null, List.of("kafka=spring-kafka", "kafka=kafka-clients"), name -> name));
+        Assertions.assertTrue(exception.getMessage().contains("line 2"));
+    }
+
+    @Test
+    public void matchesNameOrRegularExpression() {
+        Assertions.assertTrue(ExportRequests.matches("org.springframework.kafka", "spring-kafka", "kafka"));
+        Assertions.assertFalse(ExportRequests.matches("org.springframework.kafka", "spring-kafka", "springframework"));
+        Assertions.assertTrue(ExportRequests.matches("org.springframework.kafka", "spring-kafka", "/^org\\.springframework\\./"));
+        Assertions.assertFalse(ExportRequests.matches("org.apache.kafka", "kafka-clients", "/^org\\.springframework\\./"));
+    }
+
+    @Test
+    public void assignsOverlappingMatchesToTheFirstFeature() {
+        Map<String, String> requests = new LinkedHashMap<>();
+        requests.put("kafka", "kafka");
+        requests.put("spring", "/^org\\.springframework[.:]/");
+        ExportRequests.Assignment assignment = ExportRequests.assign(requests,
+            List.of("org.apache.kafka:kafka-clients", "org.springframework.kafka:spring-kafka", "org.springframework:spring-core"));
+
+        Assertions.assertEquals(List.of("org.apache.kafka:kafka-clients", "org.springframework.kafka:spring-kafka"),
+            assignment.modulesByFeature().get("kafka"));
+        Assertions.assertEquals(List.of("org.springframework:spring-core"), assignment.modulesByFeature().get("spring"));
+        Assertions.assertEquals(Map.of("org.springframework.kafka:spring-kafka", List.of("kafka", "spring")), assignment.overlaps());
+    }
+}
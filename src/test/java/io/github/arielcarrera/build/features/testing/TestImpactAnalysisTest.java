@@ -0,0 +1,67 @@
+package io.github.arielcarrera.build.features.testing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.arielcarrera.build.features.testing.TestImpactAnalysis.Baseline;
+import io.github.arielcarrera.build.features.testing.TestImpactAnalysis.ClassInfo;
+
+public class TestImpactAnalysisTest {
+
+    private static ClassInfo info(String hash, String... references) {
+        return new ClassInfo(hash, Set.of(references));
+    }
+
+    @Test
+    public void readsReferencesFromConstantPool() throws IOException {
+        try (InputStream input = TestShard.class.getResourceAsStream("TestShard.class")) {
+            Set<String> references = TestImpactAnalysis.references(input.readAllBytes());
+            Assertions.assertTrue(references.contains("org/gradle/api/InvalidUserDataException"));
+            Assertions.assertTrue(references.contains("java/lang/String"));
+        }
+    }
+
+    @Test
+    public void selectsTestsReachingChangedClasses(@TempDir Path dir) throws IOException {
+        Map<String, ClassInfo> main = Map.of("com/example/Service", info("1", "com/example/Repository"),
+            "com/example/Repository", info("1"), "com/example/Mapper", info("1"));
+        Map<String, ClassInfo> tests = Map.of("com/example/ServiceTest", info("1"),
+            "com/example/ServiceTest$Nested", info("1", "com/example/Service"),
+            "com/example/MapperTest", info("1", "com/example/Mapper"));
+        Baseline previous = TestImpactAnalysis.analyze(main, tests, "cp");
+        previous.write(dir.resolve("baseline.txt"));
+        previous = Baseline.read(dir.resolve("baseline.txt"));
+
+        Map<String, ClassInfo> changedMain = Map.of("com/example/Service", info("1", "com/example/Repository"),
+            "com/example/Repository", info("2"), "com/example/Mapper", info("1"));
+        Baseline current = TestImpactAnalysis.analyze(changedMain, tests, "cp");
+
+        Assertions.assertEquals(Set.of("com.example.ServiceTest"), TestImpactAnalysis.select(previous, current));
+        Assertions.assertEquals(Set.of(), TestImpactAnalysis.select(previous, TestImpactAnalysis.analyze(main, tests, "cp")));
+        Assertions.assertNull(TestImpactAnalysis.select(previous, TestImpactAnalysis.analyze(main, tests, "other")));
+        Assertions.assertNull(TestImpactAnalysis.select(null, current));
+    }
+
+    @Test
+    public void selectsContextTestsWhenAClassChanges() {
+        Map<String, ClassInfo> main = Map.of("com/example/Controller", info("1"), "com/example/ScannedService", info("1"));
+        Map<String, ClassInfo> tests = Map.of("com/example/ApplicationTest", info("1", "com/example/IntegrationTest"),
+            "com/example/IntegrationTest", info("1", "org/springframework/boot/test/context/SpringBootTest"),
+            "com/example/ControllerTest", info("1", "com/example/Controller"));
+        Baseline previous = TestImpactAnalysis.analyze(main, tests, "cp");
+
+        Map<String, ClassInfo> changedMain = Map.of("com/example/Controller", info("1"), "com/example/ScannedService", info("2"));
+        Baseline current = TestImpactAnalysis.analyze(changedMain, tests, "cp");
+
+        Assertions.assertEquals(Set.of("com/example/ApplicationTest", "com/example/IntegrationTest"), current.contextTests());
+        Assertions.assertEquals(Set.of("com.example.ApplicationTest", "com.example.IntegrationTest"), TestImpactAnalysis.select(previous, current));
+        Assertions.assertEquals(Set.of(), TestImpactAnalysis.select(previous, TestImpactAnalysis.analyze(main, tests, "cp")));
+    }
+}
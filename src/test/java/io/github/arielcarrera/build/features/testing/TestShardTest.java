@@ -0,0 +1,37 @@
+package io.github.arielcarrera.build.features.testing;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.gradle.api.InvalidUserDataException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestShardTest {
+
+    @Test
+    public void everyClassBelongsToExactlyOneShard() {
+        List<TestShard> shards = IntStream.rangeClosed(1, 4).mapToObj(i -> TestShard.parse(i + "/4")).toList();
+        for (int i = 0; i < 200; i++) {
+            String classFile = "com/example/Service" + i + "Test.class";
+            Assertions.assertEquals(1, shards.stream().filter(shard -> shard.includes(classFile)).count());
+        }
+    }
+
+    @Test
+    public void innerClassesFollowTheirOuterClass() {
+        for (int i = 1; i <= 3; i++) {
+            TestShard shard = new TestShard(i, 3);
+            Assertions.assertEquals(shard.includes("com/example/FooTest.class"), shard.includes("com/example/FooTest$Nested.class"));
+            Assertions.assertEquals(shard.includes("com/example/FooTest.class"), shard.includes("com.example.FooTest"));
+        }
+    }
+
+    @Test
+    public void rejectsInvalidShards() {
+        Assertions.assertThrows(InvalidUserDataException.class, () -> TestShard.parse("0/2"));
+        Assertions.assertThrows(InvalidUserDataException.class, () -> TestShard.parse("3/2"));
+        Assertions.assertThrows(InvalidUserDataException.class, () -> TestShard.parse("a/2"));
+        Assertions.assertThrows(InvalidUserDataException.class, () -> TestShard.parse("2"));
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.arielcarrera.build.features.utils;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AhoCorasickMatcherTest {
+
+    @Test
+    public void matchesAnyKeyword() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("PASSWORD", "PASS", "APIKEY", "API_KEY", "SECRET"));
+
+        Assertions.assertTrue(matcher.matches("DB_PASSWORD"));
+        Assertions.assertTrue(matcher.matches("PASSPHRASE"));
+        Assertions.assertTrue(matcher.matches("STRIPE_API_KEY_ID"));
+        Assertions.assertTrue(matcher.matches("APAPIKEY"));
+        Assertions.assertFalse(matcher.matches("DB_HOST"));
+        Assertions.assertFalse(matcher.matches("API_KE"));
+        Assertions.assertFalse(matcher.matches(null));
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.arielcarrera.build.features.utils;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BuildScriptEditorTest {
+
+    private static final String GROOVY_SCRIPT = """
+        plugins {
+            id 'io.github.arielcarrera.build.features.boot' version '0.3.0'
+        }
+
+        buildFeatures {
+            settings {
+                envFile = ".env" // comment with a { brace
+            }
+            features {
+                enable 'springBootWeb'
+            }
+        }
+
+        dependencies {
+            implementation "org.springdoc:springdoc-openapi-starter-webflux-ui:$springdocVersion"
+            implementation('org.springframework.kafka:spring-kafka') {
+                exclude group: 'io.zipkin.brave', module: 'brave-instrumentation-kafka-clients'
+            }
+            testImplementation group: 'org.mockito', name: 'mockito-core', version: '5.2.0'
+            implementation 'commons-io:commons-io:2.15.1'
+        }
+        """;
+
+    @Test
+    public void removeDependenciesAndEnableFeature() {
+        BuildScriptEditor editor = new BuildScriptEditor(GROOVY_SCRIPT, false);
+        Set<String> removed = editor.removeDependencies(List.of("org.springframework.kafka:spring-kafka", "org.mockito:mockito-core",
+            "org.springdoc:springdoc-openapi-starter-webflux-ui"));
+        List<String> added = editor.enableFeatures("buildFeatures", List.of("springKafka", "springBootWeb"));
+
+        Assertions.assertEquals(3, removed.size());
+        Assertions.assertEquals(List.of("springKafka"), added);
+        String result = editor.apply();
+        Assertions.assertEquals("""
+            plugins {
+                id 'io.github.arielcarrera.build.features.boot' version '0.3.0'
+            }
+
+            buildFeatures {
+                settings {
+                    envFile = ".env" // comment with a { brace
+                }
+                features {
+                    enable 'springBootWeb'
+                    enable 'springKafka'
+                }
+            }
+
+            dependencies {
+                implementation 'commons-io:commons-io:2.15.1'
+            }
+            """, result);
+    }
+
+    @Test
+    public void kotlinScriptWithoutFeaturesBlock() {
+        String script = """
+            buildFeatures {
+                settings {
+                    envFile.set(".env")
+                }
+            }
+
+            dependencies {
+                implementation("org.springframework.retry:spring-retry")
+            }
+            """;
+        BuildScriptEditor editor = new BuildScriptEditor(script, BuildScriptEditor.isKotlinScript("build.gradle.kts"));
+        editor.removeDependencies(List.of("org.springframework.retry:spring-retry"));
+        editor.enableFeatures("buildFeatures", List.of("springRetry"));
+
+        Assertions.assertEquals("""
+            buildFeatures {
+                settings {
+                    envFile.set(".env")
+                }
+                features {
+                    enable("springRetry")
+                }
+            }
+
+            dependencies {
+            }
+            """, editor.apply());
+    }
+
+    @Test
+    public void multiLineCallIsRemoved() {
+        String script = """
+            dependencies {
+                implementation(
+                    "org.springframework.retry:spring-retry:2.0.5"
+                )
+                implementation("org.springframework.kafka:spring-kafka") {
+                    exclude(group = "io.zipkin.brave")
+                }
+                constraints {
+                    implementation("org.springframework.retry:spring-retry:2.0.6")
+                }
+                implementation("commons-io:commons-io:2.15.1")
+            }
+            """;
+        BuildScriptEditor editor = new BuildScriptEditor(script, true);
+        Set<String> removed = editor.removeDependencies(List.of("org.springframework.retry:spring-retry",
+            "org.springframework.kafka:spring-kafka"));
+
+        Assertions.assertEquals(Set.of("org.springframework.retry:spring-retry", "org.springframework.kafka:spring-kafka"), removed);
+        Assertions.assertEquals("""
+            dependencies {
+                constraints {
+                    implementation("org.springframework.retry:spring-retry:2.0.6")
+                }
+                implementation("commons-io:commons-io:2.15.1")
+            }
+            """, editor.apply());
+    }
+
+    @Test
+    public void singleLineBlockIsEdited() {
+        BuildScriptEditor editor = new BuildScriptEditor("""
+            dependencies { implementation 'a:b:1'; implementation 'c:d:1' }
+            dependencies { testImplementation 'e:f:1' }
+            """, false);
+        Set<String> removed = editor.removeDependencies(List.of("a:b", "e:f"));
+
+        Assertions.assertEquals(Set.of("a:b", "e:f"), removed);
+        Assertions.assertEquals("""
+            dependencies { implementation 'c:d:1' }
+            dependencies { }
+            """, editor.apply());
+    }
+
+    @Test
+    public void missingExtensionIsAppended() {
+        BuildScriptEditor editor = new BuildScriptEditor("dependencies {\n}\n", false);
+        editor.enableFeatures("buildFeatures", List.of("openApi"));
+
+        Assertions.assertEquals("dependencies {\n}\n\nbuildFeatures {\n    features {\n        enable 'openApi'\n    }\n}\n", editor.apply());
+    }
+
+    @Test
+    public void stringsAndCommentsAreIgnored() {
+        String script = """
+            def text = '''dependencies { implementation 'a:b:1' }'''
+            /* dependencies { } */
+            dependencies {
+                implementation "a:b:${'}'}"
+            }
+            """;
+        List<BuildScriptEditor.Block> blocks = BuildScriptEditor.parse(script);
+
+        Assertions.assertEquals(1, blocks.size());
+        Assertions.assertEquals("dependencies", blocks.get(0).path());
+    }
+}